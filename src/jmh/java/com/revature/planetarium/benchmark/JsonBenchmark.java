@@ -0,0 +1,87 @@
+package com.revature.planetarium.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.entities.Planet;
+import com.revature.planetarium.repository.moon.MoonDaoImp;
+import com.revature.planetarium.repository.planet.PlanetDaoImp;
+
+import io.javalin.json.JavalinJackson;
+
+/*
+ * Encoding cost of the list responses, measured on lists read once from the seeded database and
+ * through the same JavalinJackson mapper ctx.json() uses. The full lists carry base64 image data;
+ * the summaries carry imageUrl links instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Lists {
+
+        final JavalinJackson jackson = new JavalinJackson();
+        List<Planet> planets;
+        List<Planet> planetSummaries;
+        List<Moon> moons;
+        List<Moon> moonSummaries;
+
+        @Setup(Level.Trial)
+        public void load(SeededDatabase db) {
+            planets = new PlanetDaoImp().readAllPlanets();
+            planetSummaries = new PlanetDaoImp().readAllPlanetSummaries();
+            moons = new MoonDaoImp().readAllMoons();
+            moonSummaries = new MoonDaoImp().readAllMoonSummaries();
+        }
+
+    }
+
+    @Benchmark
+    public String planetsToString(Lists lists) {
+        return lists.jackson.toJsonString(lists.planets, List.class);
+    }
+
+    @Benchmark
+    public String planetSummariesToString(Lists lists) {
+        return lists.jackson.toJsonString(lists.planetSummaries, List.class);
+    }
+
+    @Benchmark
+    public String moonsToString(Lists lists) {
+        return lists.jackson.toJsonString(lists.moons, List.class);
+    }
+
+    @Benchmark
+    public String moonSummariesToString(Lists lists) {
+        return lists.jackson.toJsonString(lists.moonSummaries, List.class);
+    }
+
+    // drains the stream the way Jetty would when ctx.json() streams the body
+    @Benchmark
+    public long planetsToStream(Lists lists) throws IOException {
+        try (InputStream stream = lists.jackson.toJsonStream(lists.planets, List.class)) {
+            return stream.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.revature.planetarium.benchmark;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.repository.moon.MoonDao;
+import com.revature.planetarium.repository.moon.MoonDaoImp;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoonDaoBenchmark {
+
+    private static final MoonDao moonDao = new MoonDaoImp();
+
+    private static int randomMoonId(SeededDatabase db) {
+        return ThreadLocalRandom.current().nextInt(1, db.moonCount() + 1);
+    }
+
+    private static int randomPlanetId(SeededDatabase db) {
+        return ThreadLocalRandom.current().nextInt(1, db.planets + 1);
+    }
+
+    @Benchmark
+    public Optional<Moon> readMoonById(SeededDatabase db) {
+        return moonDao.readMoon(randomMoonId(db));
+    }
+
+    @Benchmark
+    public Optional<Moon> readMoonByName(SeededDatabase db) {
+        return moonDao.readMoon(SeededDatabase.moonName(randomPlanetId(db), 1));
+    }
+
+    @Benchmark
+    public List<Moon> readAllMoons(SeededDatabase db) {
+        return moonDao.readAllMoons();
+    }
+
+    @Benchmark
+    public List<Moon> readAllMoonSummaries(SeededDatabase db) {
+        return moonDao.readAllMoonSummaries();
+    }
+
+    @Benchmark
+    public List<Moon> readMoonsByPlanet(SeededDatabase db) {
+        return moonDao.readMoonsByPlanet(randomPlanetId(db));
+    }
+
+    @Benchmark
+    public List<Moon> readMoonSummariesByPlanet(SeededDatabase db) {
+        return moonDao.readMoonSummariesByPlanet(randomPlanetId(db));
+    }
+
+    @Benchmark
+    public List<Moon> readMoonPage(SeededDatabase db) {
+        return moonDao.readMoonPage(randomMoonId(db), 26, true);
+    }
+
+    @Benchmark
+    public List<Moon> readMoonPageSummaries(SeededDatabase db) {
+        return moonDao.readMoonPage(randomMoonId(db), 26, false);
+    }
+
+    @Benchmark
+    public List<Moon> readMoonPageByPlanet(SeededDatabase db) {
+        return moonDao.readMoonPageByPlanet(randomPlanetId(db), 0, 26, true);
+    }
+
+    @Benchmark
+    public Optional<byte[]> readMoonImage(SeededDatabase db) {
+        return moonDao.readMoonImage(randomMoonId(db));
+    }
+
+    @Benchmark
+    public long readDataVersion(SeededDatabase db) {
+        return moonDao.readDataVersion();
+    }
+
+    @Benchmark
+    public Optional<Moon> updateMoon(SeededDatabase db) {
+        int planetId = randomPlanetId(db);
+        Optional<Moon> moon = moonDao.readMoon(SeededDatabase.moonName(planetId, 1));
+        return moonDao.updateMoon(moon.get());
+    }
+
+    @Benchmark
+    public boolean createAndDeleteMoon(SeededDatabase db) {
+        Moon moon = new Moon();
+        moon.setMoonName("bench-" + Thread.currentThread().getId());
+        moon.setOwnerId(randomPlanetId(db));
+        moon.setImageData(Base64.getEncoder().encodeToString(db.image));
+        moonDao.createMoon(moon);
+        return moonDao.deleteMoon(moon.getMoonName()).isPresent();
+    }
+
+    @Benchmark
+    public boolean deleteMissingMoon(SeededDatabase db) {
+        return moonDao.deleteMoon(db.moonCount() + 1).isPresent();
+    }
+
+}
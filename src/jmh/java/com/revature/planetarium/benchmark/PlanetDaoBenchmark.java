@@ -0,0 +1,113 @@
+package com.revature.planetarium.benchmark;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.planetarium.entities.Planet;
+import com.revature.planetarium.repository.planet.PlanetDao;
+import com.revature.planetarium.repository.planet.PlanetDaoImp;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanetDaoBenchmark {
+
+    private static final PlanetDao planetDao = new PlanetDaoImp();
+
+    private static int randomId(SeededDatabase db) {
+        return ThreadLocalRandom.current().nextInt(1, db.planets + 1);
+    }
+
+    @Benchmark
+    public Optional<Planet> readPlanetById(SeededDatabase db) {
+        return planetDao.readPlanet(randomId(db));
+    }
+
+    @Benchmark
+    public Optional<Planet> readPlanetByName(SeededDatabase db) {
+        return planetDao.readPlanet(SeededDatabase.planetName(randomId(db)));
+    }
+
+    @Benchmark
+    public List<Planet> readAllPlanets(SeededDatabase db) {
+        return planetDao.readAllPlanets();
+    }
+
+    @Benchmark
+    public List<Planet> readAllPlanetSummaries(SeededDatabase db) {
+        return planetDao.readAllPlanetSummaries();
+    }
+
+    @Benchmark
+    public List<Planet> readPlanetsByOwner(SeededDatabase db) {
+        return planetDao.readPlanetsByOwner(1);
+    }
+
+    @Benchmark
+    public List<Planet> readPlanetPage(SeededDatabase db) {
+        return planetDao.readPlanetPage(randomId(db), 26, true);
+    }
+
+    @Benchmark
+    public List<Planet> readPlanetPageSummaries(SeededDatabase db) {
+        return planetDao.readPlanetPage(randomId(db), 26, false);
+    }
+
+    @Benchmark
+    public List<Planet> readPlanetPageByOwner(SeededDatabase db) {
+        return planetDao.readPlanetPageByOwner(1, randomId(db), 26, true);
+    }
+
+    @Benchmark
+    public Optional<byte[]> readPlanetImage(SeededDatabase db) {
+        return planetDao.readPlanetImage(randomId(db));
+    }
+
+    @Benchmark
+    public long readDataVersion(SeededDatabase db) {
+        return planetDao.readDataVersion();
+    }
+
+    @Benchmark
+    public Optional<Planet> updatePlanet(SeededDatabase db) {
+        int id = randomId(db);
+        Planet planet = new Planet();
+        planet.setPlanetId(id);
+        planet.setPlanetName(SeededDatabase.planetName(id));
+        planet.setOwnerId(1);
+        return planetDao.updatePlanet(planet);
+    }
+
+    /*
+     * Creating and deleting in the same invocation keeps the table at its seeded size. The delete
+     * goes by name so both deletePlanet overloads are covered between this and deleteMissingPlanet.
+     */
+    @Benchmark
+    public boolean createAndDeletePlanet(SeededDatabase db) {
+        Planet planet = new Planet();
+        planet.setPlanetName("bench-" + Thread.currentThread().getId());
+        planet.setOwnerId(1);
+        planet.setImageData(Base64.getEncoder().encodeToString(db.image));
+        planetDao.createPlanet(planet);
+        return planetDao.deletePlanet(planet.getPlanetName()).isPresent();
+    }
+
+    @Benchmark
+    public boolean deleteMissingPlanet(SeededDatabase db) {
+        return planetDao.deletePlanet(db.planets + 1).isPresent();
+    }
+
+}
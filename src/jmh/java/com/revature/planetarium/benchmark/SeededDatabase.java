@@ -0,0 +1,129 @@
+package com.revature.planetarium.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.revature.planetarium.utility.DatabaseConnector;
+import com.revature.planetarium.utility.SchemaMigrator;
+
+/*
+ * A throwaway SQLite database seeded once per fork. planets is the number of planets, each planet
+ * gets moonsPerPlanet moons, and every row carries imageBytes bytes of image data. Each row's image
+ * starts with its own number, so with content-addressed images every row still has an images row of
+ * its own rather than all of them sharing one; image is the unnumbered template, used by the write
+ * benchmarks for the rows they insert. The schema mirrors
+ * setup-reset.sql and is then brought up to date with SchemaMigrator, so the indexes and triggers are
+ * the ones production runs with. JMH forks a fresh JVM per parameter combination, which keeps the
+ * static connection pool pointed at the right file.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param({"100", "1000"})
+    public int planets;
+
+    @Param({"2"})
+    public int moonsPerPlanet;
+
+    @Param({"0", "16384"})
+    public int imageBytes;
+
+    public byte[] image;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void seed() throws IOException, SQLException {
+        file = Files.createTempFile("planetarium-bench", ".db");
+        String url = "jdbc:sqlite:" + file.toAbsolutePath();
+        System.setProperty("PLANETARIUM", url);
+        image = new byte[imageBytes];
+        new Random(42).nextBytes(image);
+
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("create table users(id integer primary key, "
+                    + "username text unique not null check (length(username) <= 30), "
+                    + "password text not null check (length(password) <= 30))");
+            stmt.executeUpdate("create table planets(id integer primary key, "
+                    + "name text not null check (length(name) <= 30), ownerId integer, image blob, "
+                    + "foreign key(ownerId) references users(id) on delete cascade)");
+            stmt.executeUpdate("create table moons(id integer primary key, "
+                    + "name text not null check (length(name) <= 30), myPlanetId integer, image blob, "
+                    + "foreign key(myPlanetId) references planets(id) on delete cascade)");
+            stmt.executeUpdate("insert into users (username, password) values ('Batman', 'I am the night')");
+        }
+
+        // seeded in the original layout so the migrations move the images as they would in production
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement planetStmt = conn.prepareStatement("insert into planets (id, name, ownerId, image) values (?, ?, 1, ?)");
+                 PreparedStatement moonStmt = conn.prepareStatement("insert into moons (name, myPlanetId, image) values (?, ?, ?)")) {
+                for (int i = 1; i <= planets; i++) {
+                    planetStmt.setInt(1, i);
+                    planetStmt.setString(2, planetName(i));
+                    planetStmt.setBytes(3, numbered(image, i));
+                    planetStmt.addBatch();
+                    for (int m = 1; m <= moonsPerPlanet; m++) {
+                        moonStmt.setString(1, moonName(i, m));
+                        moonStmt.setInt(2, i);
+                        moonStmt.setBytes(3, numbered(image, planets + (i - 1) * moonsPerPlanet + m));
+                        moonStmt.addBatch();
+                    }
+                }
+                planetStmt.executeBatch();
+                moonStmt.executeBatch();
+            }
+            conn.commit();
+        }
+        SchemaMigrator.migrate();
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws IOException {
+        DatabaseConnector.shutdown();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + "-wal"));
+        Files.deleteIfExists(Path.of(file + "-shm"));
+    }
+
+    /*
+     * A copy of the template with n written over its first bytes, big-endian; the template itself
+     * when it is too short to tell rows apart, as with imageBytes 0.
+     */
+    private static byte[] numbered(byte[] template, int n) {
+        if (template.length < Integer.BYTES) {
+            return template;
+        }
+        byte[] image = template.clone();
+        ByteBuffer.wrap(image).putInt(n);
+        return image;
+    }
+
+    public static String planetName(int i) {
+        return "planet-" + i;
+    }
+
+    public static String moonName(int planet, int moon) {
+        return "moon-" + planet + "-" + moon;
+    }
+
+    public int moonCount() {
+        return planets * moonsPerPlanet;
+    }
+
+}
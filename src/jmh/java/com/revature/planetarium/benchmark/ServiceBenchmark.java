@@ -0,0 +1,207 @@
+package com.revature.planetarium.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.entities.Page;
+import com.revature.planetarium.entities.Planet;
+import com.revature.planetarium.entities.User;
+import com.revature.planetarium.exceptions.MoonFail;
+import com.revature.planetarium.exceptions.PlanetFail;
+import com.revature.planetarium.exceptions.UserFail;
+import com.revature.planetarium.repository.moon.CachingMoonDao;
+import com.revature.planetarium.repository.moon.MoonDao;
+import com.revature.planetarium.repository.moon.MoonDaoImp;
+import com.revature.planetarium.repository.planet.CachingPlanetDao;
+import com.revature.planetarium.repository.planet.PlanetDao;
+import com.revature.planetarium.repository.planet.PlanetDaoImp;
+import com.revature.planetarium.repository.user.UserDaoImp;
+import com.revature.planetarium.service.moon.MoonService;
+import com.revature.planetarium.service.moon.MoonServiceImp;
+import com.revature.planetarium.service.planet.PlanetService;
+import com.revature.planetarium.service.planet.PlanetServiceImp;
+import com.revature.planetarium.service.user.UserService;
+import com.revature.planetarium.service.user.UserServiceImp;
+import com.revature.planetarium.utility.EntityCache;
+import com.revature.planetarium.utility.OffHeapImageCache;
+
+/*
+ * The service layer as the controllers drive it, including the validation paths that end in a
+ * PlanetFail, MoonFail or UserFail. cached switches between the raw DAOs and the caching decorators
+ * wired up in JavalinSetup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Services {
+
+        @Param({"false", "true"})
+        public boolean cached;
+
+        PlanetService<Object> planetService;
+        MoonService<Object> moonService;
+        UserService userService;
+
+        @Setup(Level.Trial)
+        public void wire(SeededDatabase db) {
+            PlanetDao planetDao = new PlanetDaoImp();
+            MoonDao moonDao = new MoonDaoImp();
+            if (cached) {
+                EntityCache<Planet> planetCache = CachingPlanetDao.createCache(32L * 1024 * 1024, 300_000);
+                EntityCache<Moon> moonCache = CachingMoonDao.createCache(32L * 1024 * 1024, 300_000);
+                OffHeapImageCache imageCache = new OffHeapImageCache("images", 64L * 1024 * 1024, 300_000);
+                planetDao = new CachingPlanetDao(planetDao, planetCache, moonCache, imageCache);
+                moonDao = new CachingMoonDao(moonDao, moonCache, imageCache);
+            }
+            planetService = new PlanetServiceImp<>(planetDao);
+            moonService = new MoonServiceImp<>(moonDao);
+            userService = new UserServiceImp(new UserDaoImp());
+        }
+
+    }
+
+    private static int randomPlanetId(SeededDatabase db) {
+        return ThreadLocalRandom.current().nextInt(1, db.planets + 1);
+    }
+
+    @Benchmark
+    public Planet selectPlanetById(SeededDatabase db, Services services) {
+        return services.planetService.selectPlanet(randomPlanetId(db));
+    }
+
+    @Benchmark
+    public Planet selectPlanetByName(SeededDatabase db, Services services) {
+        return services.planetService.selectPlanet(SeededDatabase.planetName(randomPlanetId(db)));
+    }
+
+    @Benchmark
+    public Page<Planet> selectPlanetPage(SeededDatabase db, Services services) {
+        return services.planetService.selectPlanetPage(randomPlanetId(db), 25, false);
+    }
+
+    @Benchmark
+    public String rejectPlanetNameTooLong(SeededDatabase db, Services services) {
+        Planet planet = new Planet();
+        planet.setPlanetName("a-planet-name-well-over-thirty-characters");
+        planet.setOwnerId(1);
+        try {
+            services.planetService.createPlanet(planet);
+            throw new IllegalStateException("validation did not reject the planet");
+        } catch (PlanetFail e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String rejectDuplicatePlanet(SeededDatabase db, Services services) {
+        Planet planet = new Planet();
+        planet.setPlanetName(SeededDatabase.planetName(randomPlanetId(db)));
+        planet.setOwnerId(1);
+        try {
+            services.planetService.createPlanet(planet);
+            throw new IllegalStateException("validation did not reject the planet");
+        } catch (PlanetFail e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String rejectPlanetRenameToExisting(SeededDatabase db, Services services) {
+        Planet planet = new Planet();
+        planet.setPlanetId(1);
+        planet.setPlanetName(SeededDatabase.planetName(2));
+        planet.setOwnerId(1);
+        try {
+            services.planetService.updatePlanet(planet);
+            throw new IllegalStateException("validation did not reject the update");
+        } catch (PlanetFail e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String rejectMissingPlanet(SeededDatabase db, Services services) {
+        try {
+            services.planetService.selectPlanet(db.planets + 1);
+            throw new IllegalStateException("lookup did not reject the planet");
+        } catch (PlanetFail e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public Moon selectMoonByName(SeededDatabase db, Services services) {
+        return services.moonService.selectMoon(SeededDatabase.moonName(randomPlanetId(db), 1));
+    }
+
+    @Benchmark
+    public String rejectDuplicateMoon(SeededDatabase db, Services services) {
+        Moon moon = new Moon();
+        moon.setMoonName(SeededDatabase.moonName(randomPlanetId(db), 1));
+        moon.setOwnerId(1);
+        try {
+            services.moonService.createMoon(moon);
+            throw new IllegalStateException("validation did not reject the moon");
+        } catch (MoonFail e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String rejectMoonNameTooShort(SeededDatabase db, Services services) {
+        Moon moon = new Moon();
+        moon.setMoonName("");
+        moon.setOwnerId(1);
+        try {
+            services.moonService.createMoon(moon);
+            throw new IllegalStateException("validation did not reject the moon");
+        } catch (MoonFail e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public User authenticate(SeededDatabase db, Services services) {
+        return services.userService.authenticate(new User(0, "Batman", "I am the night"));
+    }
+
+    @Benchmark
+    public String rejectWrongPassword(SeededDatabase db, Services services) {
+        try {
+            services.userService.authenticate(new User(0, "Batman", "I am the day"));
+            throw new IllegalStateException("authentication did not reject the password");
+        } catch (UserFail e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String rejectTakenUsername(SeededDatabase db, Services services) {
+        try {
+            services.userService.createUser(new User(0, "Batman", "password"));
+            throw new IllegalStateException("validation did not reject the username");
+        } catch (UserFail e) {
+            return e.getMessage();
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.revature.planetarium.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.planetarium.entities.User;
+import com.revature.planetarium.repository.user.UserDao;
+import com.revature.planetarium.repository.user.UserDaoImp;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDaoBenchmark {
+
+    private static final UserDao userDao = new UserDaoImp();
+    private static final AtomicLong sequence = new AtomicLong();
+
+    @Benchmark
+    public Optional<User> findExistingUser(SeededDatabase db) {
+        return userDao.findUserByUsername("Batman");
+    }
+
+    @Benchmark
+    public Optional<User> findMissingUser(SeededDatabase db) {
+        return userDao.findUserByUsername("Robin");
+    }
+
+    // there is no user delete, so the users table grows by one row per invocation
+    @Benchmark
+    public Optional<User> createUser(SeededDatabase db) {
+        User user = new User();
+        user.setUsername("bench-" + sequence.incrementAndGet());
+        user.setPassword("password");
+        return userDao.createUser(user);
+    }
+
+}
@@ -1,12 +1,21 @@
 package com.revature.planetarium;
 
+import com.revature.planetarium.utility.Compression;
+import com.revature.planetarium.utility.DatabaseConnector;
+import com.revature.planetarium.utility.ImageFiles;
 import com.revature.planetarium.utility.JavalinSetup;
+import com.revature.planetarium.utility.SchemaMigrator;
+import com.revature.planetarium.utility.ServerThreads;
+import com.revature.planetarium.utility.Thumbnailer;
 
 import io.javalin.Javalin;
 
 public class Main {
 
 	public static void main(String[] args) {
+		SchemaMigrator.migrate();
+		Thumbnailer.backfill();
+		ImageFiles.schedulePruning();
 		Javalin app = Javalin.create(config ->{
 			config.bundledPlugins.enableCors(cors -> {
 				cors.addRule(it -> {
@@ -14,6 +23,13 @@ public class Main {
 				});
 			});
 			config.bundledPlugins.enableDevLogging();
+			config.http.customCompression(Compression.strategy());
+			ServerThreads.configure(config);
+			config.events(events -> {
+				events.serverStopped(DatabaseConnector::shutdown);
+				events.handlerAdded(JavalinSetup.requestMetrics::register);
+			});
+			config.jetty.modifyServer(server -> server.setRequestLog(JavalinSetup.requestMetrics));
 		});
 		JavalinSetup.mapRoutes(app);
 		app.start(8080);
@@ -0,0 +1,145 @@
+package com.revature.planetarium.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revature.planetarium.service.session.SessionService;
+import com.revature.planetarium.utility.CacheStats;
+import com.revature.planetarium.utility.DatabaseConnector;
+import com.revature.planetarium.utility.EntityCache;
+import com.revature.planetarium.utility.OffHeapImageCache;
+import com.revature.planetarium.utility.PoolStats;
+import com.revature.planetarium.utility.PrometheusFormat;
+import com.revature.planetarium.utility.RequestMetrics;
+import com.revature.planetarium.utility.ServerThreads;
+import com.revature.planetarium.utility.SqlMetrics;
+import com.revature.planetarium.utility.ThreadStats;
+import com.revature.planetarium.utility.Thumbnailer;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+public class AdminController {
+
+    private RequestMetrics requestMetrics;
+    private SessionService sessionService;
+    private String adminToken;
+    private OffHeapImageCache imageCache;
+    private List<EntityCache<?>> caches;
+
+    public AdminController(RequestMetrics requestMetrics, SessionService sessionService, String adminToken,
+                           OffHeapImageCache imageCache, EntityCache<?>... caches) {
+        this.requestMetrics = requestMetrics;
+        this.sessionService = sessionService;
+        this.adminToken = adminToken == null || adminToken.isBlank() ? null : adminToken;
+        this.imageCache = imageCache;
+        this.caches = List.of(caches);
+    }
+
+    /*
+     * The admin routes expose SQL statement text, session counts and pool internals, so they need a
+     * logged-in session like /planetarium does. Scrapers that cannot log in may instead send
+     * "Authorization: Bearer <token>" when PLANETARIUM_ADMIN_TOKEN is set. Throws
+     * AuthenticationFailed otherwise.
+     */
+    public void authorize(Context ctx) {
+        String authorization = ctx.header(Header.AUTHORIZATION);
+        if (adminToken != null && authorization != null && MessageDigest.isEqual(
+                authorization.getBytes(StandardCharsets.UTF_8), ("Bearer " + adminToken).getBytes(StandardCharsets.UTF_8))) {
+            return;
+        }
+        ctx.attribute("user", sessionService.authenticate(ctx.cookie(UserController.SESSION_COOKIE)));
+    }
+
+    public void poolStats(Context ctx) {
+        ctx.json(DatabaseConnector.getPoolStats());
+        ctx.status(200);
+    }
+
+    public void cacheStats(Context ctx) {
+        ctx.json(allCacheStats());
+        ctx.status(200);
+    }
+
+    public void threadStats(Context ctx) {
+        ctx.json(ServerThreads.getStats());
+        ctx.status(200);
+    }
+
+    /*
+     * Everything above in Prometheus text format, together with the per-route request metrics and
+     * the per-statement SQL metrics.
+     */
+    public void metrics(Context ctx) {
+        PrometheusFormat out = new PrometheusFormat();
+        requestMetrics.writeTo(out);
+
+        PoolStats pool = DatabaseConnector.getPoolStats();
+        out.header("planetarium_db_pool_connections", "gauge", "Pooled connections by state.");
+        out.sample("planetarium_db_pool_connections", "state=\"active\"", pool.getActive());
+        out.sample("planetarium_db_pool_connections", "state=\"idle\"", pool.getIdle());
+        out.sample("planetarium_db_pool_connections", "state=\"max\"", pool.getMaxSize());
+        out.header("planetarium_db_pool_waiting", "gauge", "Threads waiting for a connection.");
+        out.sample("planetarium_db_pool_waiting", "", pool.getWaiting());
+        out.header("planetarium_db_pool_acquired_total", "counter", "Connections handed out.");
+        out.sample("planetarium_db_pool_acquired_total", "", pool.getAcquired());
+        out.header("planetarium_db_pool_timeouts_total", "counter", "Acquire attempts that timed out.");
+        out.sample("planetarium_db_pool_timeouts_total", "", pool.getTimeouts());
+        out.header("planetarium_db_pool_leaks_total", "counter", "Connections held past the leak threshold.");
+        out.sample("planetarium_db_pool_leaks_total", "", pool.getLeaksDetected());
+        out.header("planetarium_db_pool_wait_seconds_total", "counter", "Time spent waiting for connections.");
+        out.sample("planetarium_db_pool_wait_seconds_total", "", pool.getTotalWaitMicros() / 1e6);
+        SqlMetrics.writeTo(out);
+        Thumbnailer.writeTo(out);
+
+        out.header("planetarium_sessions", "gauge", "Login sessions in the session store.");
+        out.sample("planetarium_sessions", "", sessionService.countSessions());
+
+        List<CacheStats> cacheStats = allCacheStats();
+        out.header("planetarium_cache_requests_total", "counter", "Entity and image cache lookups by result.");
+        for (CacheStats stats : cacheStats) {
+            out.sample("planetarium_cache_requests_total", "cache=\"" + stats.getName() + "\",result=\"hit\"", stats.getHits());
+            out.sample("planetarium_cache_requests_total", "cache=\"" + stats.getName() + "\",result=\"miss\"", stats.getMisses());
+        }
+        out.header("planetarium_cache_evictions_total", "counter", "Entries evicted to stay within the byte budget.");
+        for (CacheStats stats : cacheStats) {
+            out.sample("planetarium_cache_evictions_total", "cache=\"" + stats.getName() + "\"", stats.getEvictions());
+        }
+        out.header("planetarium_cache_bytes", "gauge", "Estimated bytes held by each cache.");
+        for (CacheStats stats : cacheStats) {
+            out.sample("planetarium_cache_bytes", "cache=\"" + stats.getName() + "\"", stats.getWeight());
+        }
+
+        ThreadStats threads = ServerThreads.getStats();
+        out.header("planetarium_jvm_threads", "gauge", "Live JVM platform threads.");
+        out.sample("planetarium_jvm_threads", "", threads.getJvmThreads());
+        out.header("planetarium_server_threads", "gauge", "Jetty pool threads by state; absent under virtual threads.");
+        if (!threads.isVirtualThreads()) {
+            out.sample("planetarium_server_threads", "state=\"busy\"", threads.getBusyServerThreads());
+            out.sample("planetarium_server_threads", "state=\"idle\"", threads.getIdleServerThreads());
+            out.sample("planetarium_server_threads", "state=\"max\"", threads.getMaxServerThreads());
+        }
+        out.header("planetarium_virtual_threads_enabled", "gauge", "1 when requests run on virtual threads.");
+        out.sample("planetarium_virtual_threads_enabled", "", threads.isVirtualThreads() ? 1 : 0);
+        out.header("planetarium_virtual_thread_pinned_total", "counter", "Virtual threads that blocked while pinned to their carrier.");
+        out.sample("planetarium_virtual_thread_pinned_total", "", threads.getPinnedEvents());
+        out.header("planetarium_virtual_thread_pinned_seconds_total", "counter", "Time virtual threads spent blocked while pinned.");
+        out.sample("planetarium_virtual_thread_pinned_seconds_total", "", threads.getPinnedTotalMillis() / 1e3);
+
+        ctx.contentType(PrometheusFormat.CONTENT_TYPE);
+        ctx.result(out.toString());
+        ctx.status(200);
+    }
+
+    private List<CacheStats> allCacheStats() {
+        List<CacheStats> stats = new ArrayList<>();
+        for (EntityCache<?> cache : caches) {
+            stats.add(cache.getStats());
+        }
+        stats.add(imageCache.getStats());
+        return stats;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.revature.planetarium.controller;
+
+import com.revature.planetarium.entities.CatalogPlanet;
+import com.revature.planetarium.entities.Page;
+import com.revature.planetarium.exceptions.PlanetFail;
+import com.revature.planetarium.service.moon.MoonService;
+import com.revature.planetarium.service.planet.PlanetService;
+import com.revature.planetarium.utility.HttpCaching;
+import com.revature.planetarium.utility.Paging;
+
+import io.javalin.http.Context;
+
+public class CatalogController {
+
+    private PlanetService planetService;
+    private MoonService moonService;
+
+    public CatalogController(PlanetService planetService, MoonService moonService) {
+        this.planetService = planetService;
+        this.moonService = moonService;
+    }
+
+    /*
+     * Planets with their moons nested, one page per request (?after=&limit=), optionally restricted
+     * to one owner with ?owner=. The response depends on both tables, so the ETag carries both
+     * data versions.
+     */
+    public void findCatalog(Context ctx) {
+        String etag = HttpCaching.etag("catalog-" + moonService.selectDataVersion(), planetService.selectDataVersion(), ctx.queryString());
+        if (HttpCaching.notModified(ctx, etag)) {
+            return;
+        }
+        try {
+            Page<CatalogPlanet> page = planetService.selectCatalogPage(owner(ctx), Paging.after(ctx), Paging.limit(ctx));
+            ctx.json(page);
+            ctx.status(200);
+        } catch (PlanetFail | IllegalArgumentException e) {
+            ctx.result(e.getMessage());
+            ctx.status(400);
+        }
+    }
+
+    private Integer owner(Context ctx) {
+        String owner = ctx.queryParam("owner");
+        if (owner == null || owner.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(owner.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("owner must be a number");
+        }
+    }
+
+}
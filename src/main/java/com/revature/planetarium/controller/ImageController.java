@@ -0,0 +1,46 @@
+package com.revature.planetarium.controller;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import com.revature.planetarium.exceptions.ImageFail;
+import com.revature.planetarium.service.image.ImageService;
+import com.revature.planetarium.utility.ImageResponses;
+
+import io.javalin.http.Context;
+
+public class ImageController {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private ImageService imageService;
+
+    public ImageController(ImageService imageService) {
+        this.imageService = imageService;
+    }
+
+    /*
+     * Images by content hash, as linked from the imageUrl of planets and moons. The bytes behind a
+     * hash never change, so responses may be cached forever. Range requests are honored.
+     */
+    public void findImage(Context ctx) {
+        String hash = ctx.pathParam("hash");
+        if (!HASH.matcher(hash).matches()) {
+            ctx.result("Image hash must be 64 lowercase hexadecimal characters");
+            ctx.status(400);
+            return;
+        }
+        try {
+            ImageResponses.sendImage(ctx, imageService.selectImage(hash), true,
+                    (offset, length) -> imageService.selectImageRange(hash, offset, length));
+        } catch (ImageFail e) {
+            ctx.result(e.getMessage());
+            ctx.status(404);
+        } catch (IOException e) {
+            System.out.println(e);
+            ctx.result("Image could not be read");
+            ctx.status(500);
+        }
+    }
+
+}
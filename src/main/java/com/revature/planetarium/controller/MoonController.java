@@ -1,30 +1,98 @@
 package com.revature.planetarium.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.entities.Page;
+import com.revature.planetarium.exceptions.ImageFail;
 import com.revature.planetarium.exceptions.MoonFail;
+import com.revature.planetarium.service.image.ImageService;
 import com.revature.planetarium.service.moon.MoonService;
+import com.revature.planetarium.utility.BulkRequests;
+import com.revature.planetarium.utility.HttpCaching;
+import com.revature.planetarium.utility.ImageResponses;
+import com.revature.planetarium.utility.JsonStreams;
+import com.revature.planetarium.utility.Paging;
+import com.revature.planetarium.utility.Thumbnailer;
 
 import io.javalin.http.Context;
+import io.javalin.http.Header;
 
 public class MoonController {
 
     private MoonService moonService;
+    private ImageService imageService;
 
-    public MoonController(MoonService moonService) {
+    public MoonController(MoonService moonService, ImageService imageService) {
         this.moonService = moonService;
+        this.imageService = imageService;
     }
 
     public void findAll(Context ctx) {
-        List<Moon> moons = moonService.selectAllMoons();
+        String etag = HttpCaching.etag("moons", moonService.selectDataVersion(), ctx.queryString());
+        if (HttpCaching.notModified(ctx, etag)) {
+            return;
+        }
+        if (Paging.isPaged(ctx)) {
+            try {
+                Page<Moon> page = moonService.selectMoonPage(Paging.after(ctx), Paging.limit(ctx), Paging.includeImages(ctx));
+                ctx.json(page);
+                ctx.status(200);
+            } catch (MoonFail | IllegalArgumentException e) {
+                ctx.result(e.getMessage());
+                ctx.status(400);
+            }
+            return;
+        }
+        if (JsonStreams.ENABLED) {
+            boolean includeImages = Paging.includeImages(ctx);
+            JsonStreams.<Moon>writeArray(ctx, includeImages,
+                    (afterId, limit) -> moonService.selectMoonPage(afterId, limit, includeImages));
+            return;
+        }
+        List<Moon> moons;
+        if ("url".equals(ctx.queryParam("images"))) {
+            moons = moonService.selectAllMoonSummaries();
+        } else {
+            moons = moonService.selectAllMoons();
+        }
         ctx.json(moons);
         ctx.status(200);
     }
 
     public void findAllByPlanet(Context ctx) {
         int ownerId = Integer.parseInt(ctx.pathParam("planetId"));
-        List<Moon> moons = moonService.selectByPlanet(ownerId);
+        String etag = HttpCaching.etag("moons-" + ownerId, moonService.selectDataVersion(), ctx.queryString());
+        if (HttpCaching.notModified(ctx, etag)) {
+            return;
+        }
+        if (Paging.isPaged(ctx)) {
+            try {
+                Page<Moon> page = moonService.selectPageByPlanet(ownerId, Paging.after(ctx), Paging.limit(ctx), Paging.includeImages(ctx));
+                ctx.json(page);
+                ctx.status(200);
+            } catch (MoonFail | IllegalArgumentException e) {
+                ctx.result(e.getMessage());
+                ctx.status(400);
+            }
+            return;
+        }
+        if (JsonStreams.ENABLED) {
+            boolean includeImages = Paging.includeImages(ctx);
+            JsonStreams.<Moon>writeArray(ctx, includeImages,
+                    (afterId, limit) -> moonService.selectPageByPlanet(ownerId, afterId, limit, includeImages));
+            return;
+        }
+        List<Moon> moons;
+        if ("url".equals(ctx.queryParam("images"))) {
+            moons = moonService.selectSummariesByPlanet(ownerId);
+        } else {
+            moons = moonService.selectByPlanet(ownerId);
+        }
         ctx.json(moons);
         ctx.status(200);
     }
@@ -32,6 +100,10 @@ public class MoonController {
     public void findByIdentifier(Context ctx) {
         try {
             String identifier = ctx.pathParam("identifier");
+            String etag = HttpCaching.etag("moon", moonService.selectDataVersion(), identifier);
+            if (HttpCaching.notModified(ctx, etag)) {
+                return;
+            }
             Moon moon;
             if(identifier.matches("^[0-9]+$")) {
                 moon = moonService.selectMoon(Integer.parseInt(identifier));
@@ -46,6 +118,59 @@ public class MoonController {
         }
     }
 
+    /*
+     * The moon's image, served like /images/{hash} (ranges included) but revalidated on every use,
+     * since a moon id can be reused for another moon once deleted.
+     */
+    public void findImage(Context ctx) {
+        try {
+            int id = Integer.parseInt(ctx.pathParam("id"));
+            String hash = moonService.selectMoonImageHash(id);
+            ImageResponses.sendImage(ctx, imageService.selectImage(hash), false,
+                    (offset, length) -> imageService.selectImageRange(hash, offset, length));
+        } catch (NumberFormatException e) {
+            ctx.result("Moon id must be a number");
+            ctx.status(400);
+        } catch (MoonFail | ImageFail e) {
+            ctx.result(e.getMessage());
+            ctx.status(404);
+        } catch (IOException e) {
+            System.out.println(e);
+            ctx.result("Image could not be read");
+            ctx.status(500);
+        }
+    }
+
+    /*
+     * The downscaled image for list views, ?size= picking the nearest configured thumbnail size.
+     * Serves the full image when thumbnails are turned off or not generated yet.
+     */
+    public void findThumbnail(Context ctx) {
+        int id;
+        Integer size;
+        try {
+            id = Integer.parseInt(ctx.pathParam("id"));
+            String sizeParam = ctx.queryParam("size");
+            size = sizeParam == null ? null : Integer.valueOf(sizeParam);
+        } catch (NumberFormatException e) {
+            ctx.result("Moon id and thumbnail size must be numbers");
+            ctx.status(400);
+            return;
+        }
+        try {
+            if (Thumbnailer.isEnabled()) {
+                int thumbnailSize = Thumbnailer.sizeFor(size);
+                byte[] thumbnail = moonService.selectMoonThumbnail(id, thumbnailSize);
+                ImageResponses.send(ctx, "moon-" + id + "-" + thumbnailSize, thumbnail);
+            } else {
+                ImageResponses.send(ctx, "moon-" + id, moonService.selectMoonImage(id));
+            }
+        } catch (MoonFail e) {
+            ctx.result(e.getMessage());
+            ctx.status(404);
+        }
+    }
+
     public void createMoon(Context ctx) {
         try {
             Moon moon = ctx.bodyAsClass(Moon.class);
@@ -58,6 +183,38 @@ public class MoonController {
         }
     }
 
+    /*
+     * Streams NDJSON progress back while the import runs: one BulkProgress line per committed chunk,
+     * flushed immediately so clients can follow large imports.
+     */
+    public void importMoons(Context ctx) {
+        List<Moon> moons;
+        try {
+            moons = BulkRequests.parse(ctx, Moon.class);
+        } catch (IllegalArgumentException e) {
+            ctx.result(e.getMessage());
+            ctx.status(400);
+            return;
+        }
+        ctx.status(200);
+        ctx.contentType("application/x-ndjson");
+        ctx.header(Header.CACHE_CONTROL, "no-store");
+        try {
+            OutputStream out = ctx.res().getOutputStream();
+            moonService.importMoons(moons, progress -> {
+                try {
+                    out.write(ctx.jsonMapper().toJsonString(progress, progress.getClass()).getBytes(StandardCharsets.UTF_8));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Moon import stream closed: " + e.getMessage());
+        }
+    }
+
     public void deleteMoon(Context ctx) {
         try {
             String identifier = ctx.pathParam("identifier");
@@ -1,30 +1,96 @@
 package com.revature.planetarium.controller;
 
+import java.io.IOException;
 import java.util.List;
 
+import com.revature.planetarium.entities.BulkReport;
+import com.revature.planetarium.entities.Page;
 import com.revature.planetarium.entities.Planet;
+import com.revature.planetarium.exceptions.ImageFail;
 import com.revature.planetarium.exceptions.PlanetFail;
+import com.revature.planetarium.service.image.ImageService;
 import com.revature.planetarium.service.planet.PlanetService;
+import com.revature.planetarium.utility.BulkRequests;
+import com.revature.planetarium.utility.HttpCaching;
+import com.revature.planetarium.utility.ImageResponses;
+import com.revature.planetarium.utility.JsonStreams;
+import com.revature.planetarium.utility.Paging;
+import com.revature.planetarium.utility.Thumbnailer;
 
 import io.javalin.http.Context;
 
 public class PlanetController {
 
     private PlanetService planetService;
+    private ImageService imageService;
 
-    public PlanetController(PlanetService planetService) {
+    public PlanetController(PlanetService planetService, ImageService imageService) {
         this.planetService = planetService;
+        this.imageService = imageService;
     }
 
     public void findAll(Context ctx) {
-        List<Planet> planets = planetService.selectAllPlanets();
+        String etag = HttpCaching.etag("planets", planetService.selectDataVersion(), ctx.queryString());
+        if (HttpCaching.notModified(ctx, etag)) {
+            return;
+        }
+        if (Paging.isPaged(ctx)) {
+            try {
+                Page<Planet> page = planetService.selectPlanetPage(Paging.after(ctx), Paging.limit(ctx), Paging.includeImages(ctx));
+                ctx.json(page);
+                ctx.status(200);
+            } catch (PlanetFail | IllegalArgumentException e) {
+                ctx.result(e.getMessage());
+                ctx.status(400);
+            }
+            return;
+        }
+        if (JsonStreams.ENABLED) {
+            boolean includeImages = Paging.includeImages(ctx);
+            JsonStreams.<Planet>writeArray(ctx, includeImages,
+                    (afterId, limit) -> planetService.selectPlanetPage(afterId, limit, includeImages));
+            return;
+        }
+        List<Planet> planets;
+        if ("url".equals(ctx.queryParam("images"))) {
+            planets = planetService.selectAllPlanetSummaries();
+        } else {
+            planets = planetService.selectAllPlanets();
+        }
         ctx.json(planets);
         ctx.status(200);
     }
 
     public void findAllByOwner(Context ctx) {
         int ownerId = Integer.parseInt(ctx.pathParam("ownerId"));
-        List<Planet> planets = planetService.selectByOwner(ownerId);
+        String etag = HttpCaching.etag("planets-" + ownerId, planetService.selectDataVersion(), ctx.queryString());
+        if (HttpCaching.notModified(ctx, etag)) {
+            return;
+        }
+        // owner lists link their images unless asked for them, so they stay small
+        boolean includeImages = Paging.imagesRequested(ctx);
+        if (Paging.isPaged(ctx)) {
+            try {
+                Page<Planet> page = planetService.selectPageByOwner(ownerId, Paging.after(ctx), Paging.limit(ctx), includeImages);
+                ctx.json(page);
+                ctx.status(200);
+            } catch (PlanetFail | IllegalArgumentException e) {
+                ctx.result(e.getMessage());
+                ctx.status(400);
+            }
+            return;
+        }
+        if (JsonStreams.ENABLED) {
+            JsonStreams.<Planet>writeArray(ctx, includeImages,
+                    (afterId, limit) -> planetService.selectPageByOwner(ownerId, afterId, limit, includeImages));
+            return;
+        }
+        List<Planet> planets;
+        if (includeImages) {
+            planets = planetService.selectByOwner(ownerId);
+        } else {
+            planets = planetService.selectSummariesByOwner(ownerId);
+        }
         ctx.json(planets);
         ctx.status(200);
     }
@@ -32,6 +98,10 @@ public class PlanetController {
     public void findByIdentifier(Context ctx) {
         try {
             String identifier = ctx.pathParam("identifier");
+            String etag = HttpCaching.etag("planet", planetService.selectDataVersion(), identifier);
+            if (HttpCaching.notModified(ctx, etag)) {
+                return;
+            }
             Planet planet;
             if(identifier.matches("^[0-9]+$")) {
                 planet = planetService.selectPlanet(Integer.parseInt(identifier));
@@ -46,6 +116,59 @@ public class PlanetController {
         }
     }
 
+    /*
+     * The planet's image, served like /images/{hash} (ranges included) but revalidated on every use,
+     * since a planet id can be reused for another planet once deleted.
+     */
+    public void findImage(Context ctx) {
+        try {
+            int id = Integer.parseInt(ctx.pathParam("id"));
+            String hash = planetService.selectPlanetImageHash(id);
+            ImageResponses.sendImage(ctx, imageService.selectImage(hash), false,
+                    (offset, length) -> imageService.selectImageRange(hash, offset, length));
+        } catch (NumberFormatException e) {
+            ctx.result("Planet id must be a number");
+            ctx.status(400);
+        } catch (PlanetFail | ImageFail e) {
+            ctx.result(e.getMessage());
+            ctx.status(404);
+        } catch (IOException e) {
+            System.out.println(e);
+            ctx.result("Image could not be read");
+            ctx.status(500);
+        }
+    }
+
+    /*
+     * The downscaled image for list views, ?size= picking the nearest configured thumbnail size.
+     * Serves the full image when thumbnails are turned off or not generated yet.
+     */
+    public void findThumbnail(Context ctx) {
+        int id;
+        Integer size;
+        try {
+            id = Integer.parseInt(ctx.pathParam("id"));
+            String sizeParam = ctx.queryParam("size");
+            size = sizeParam == null ? null : Integer.valueOf(sizeParam);
+        } catch (NumberFormatException e) {
+            ctx.result("Planet id and thumbnail size must be numbers");
+            ctx.status(400);
+            return;
+        }
+        try {
+            if (Thumbnailer.isEnabled()) {
+                int thumbnailSize = Thumbnailer.sizeFor(size);
+                byte[] thumbnail = planetService.selectPlanetThumbnail(id, thumbnailSize);
+                ImageResponses.send(ctx, "planet-" + id + "-" + thumbnailSize, thumbnail);
+            } else {
+                ImageResponses.send(ctx, "planet-" + id, planetService.selectPlanetImage(id));
+            }
+        } catch (PlanetFail e) {
+            ctx.result(e.getMessage());
+            ctx.status(404);
+        }
+    }
+
     public void createPlanet(Context ctx) {
         try {
             Planet planet = ctx.bodyAsClass(Planet.class);
@@ -59,6 +182,18 @@ public class PlanetController {
 
     }
 
+    public void createPlanets(Context ctx) {
+        try {
+            List<Planet> planets = BulkRequests.parse(ctx, Planet.class);
+            BulkReport report = planetService.createPlanets(planets);
+            ctx.json(report);
+            ctx.status(report.getCreated() > 0 ? 201 : 400);
+        } catch (IllegalArgumentException e) {
+            ctx.result(e.getMessage());
+            ctx.status(400);
+        }
+    }
+
     public void updatePlanet(Context ctx){
         try {
             Planet planet = ctx.bodyAsClass(Planet.class);
@@ -1,19 +1,25 @@
 package com.revature.planetarium.controller;
 
 import com.revature.planetarium.entities.User;
-import com.revature.planetarium.exceptions.AuthenticationFailed;
 import com.revature.planetarium.exceptions.UserFail;
+import com.revature.planetarium.service.session.SessionService;
 import com.revature.planetarium.service.user.UserService;
 
 import io.javalin.http.Context;
+import io.javalin.http.Cookie;
+import io.javalin.http.SameSite;
 
 public class UserController {
 
+    public static final String SESSION_COOKIE = "planetarium-session";
+
     private UserService userService;
+    private SessionService sessionService;
 
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, SessionService sessionService) {
         this.userService = userService;
+        this.sessionService = sessionService;
     }
 
     public void createUser(Context ctx) {
@@ -33,7 +39,8 @@ public class UserController {
         User user;
         try {
             user = userService.authenticate(credentials);
-            ctx.sessionAttribute("user", user.getUsername());
+            String sessionId = sessionService.startSession(user.getUsername());
+            ctx.cookie(new Cookie(SESSION_COOKIE, sessionId, "/", -1, false, 0, true, null, null, SameSite.LAX));
             ctx.status(202);
             ctx.json(user);
         } catch (UserFail e) {
@@ -44,14 +51,19 @@ public class UserController {
 
 
     public void logout(Context ctx){
-        ctx.req().getSession().invalidate();
+        sessionService.endSession(ctx.cookie(SESSION_COOKIE));
+        ctx.removeCookie(SESSION_COOKIE, "/");
         ctx.json("Logged out");
         ctx.status(401);
     }
 
+    /*
+     * Sessions live in the configured SessionService rather than the servlet session, so any node
+     * sharing the session store accepts the cookie. Throws AuthenticationFailed when it is missing,
+     * unknown or expired.
+     */
     public void authenticateUser(Context ctx){
-        if(ctx.req().getSession(false) == null){
-            throw new AuthenticationFailed("Please log in first");
-        }
+        String username = sessionService.authenticate(ctx.cookie(SESSION_COOKIE));
+        ctx.attribute("user", username);
     }
 }
@@ -1,76 +1,65 @@
 package com.revature.planetarium.controller;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.Base64;
+import com.revature.planetarium.utility.AssetRegistry;
+import com.revature.planetarium.utility.AssetRegistry.Asset;
+import com.revature.planetarium.utility.PageRegistry;
+import com.revature.planetarium.utility.PageRegistry.StaticPage;
 
 import io.javalin.http.Context;
 
 public class ViewController {
 
-    //TODO: Add a Utility Class that loads HTML files once and stores them in a Map, access
-    //pages with a single method instead of multiple
-
     //TODO: add a error page for when there is an error loading a page
 
-    public String loadPage(String page) throws IOException{
-        ClassLoader classLoader = getClass().getClassLoader();
-        InputStream inputStream = classLoader.getResourceAsStream(String.format("pages/%s", page));
-        StringBuilder stringBuilder = new StringBuilder();
-        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
-            int read;
-            char[] buffer = new char[4096];
-            while ((read = reader.read(buffer)) != -1) {
-                stringBuilder.append(buffer, 0, read);
-            }
+    private PageRegistry pageRegistry;
+    private AssetRegistry assetRegistry;
+
+    public ViewController(PageRegistry pageRegistry, AssetRegistry assetRegistry) {
+        this.pageRegistry = pageRegistry;
+        this.assetRegistry = assetRegistry;
+    }
+
+    public void page(Context ctx, String name) {
+        StaticPage page = pageRegistry.get(name);
+        if (page != null) {
+            page.send(ctx);
+        } else {
+            ctx.result("Page not found");
+            ctx.status(404);
         }
-        String content = stringBuilder.toString();   
-        return content;
     }
 
     public void login(Context ctx){
-        try {
-            String content = loadPage("login.html");
-            ctx.html(content);
-            ctx.status(200);
-        } catch (IOException e) {
-            e.printStackTrace();
-            ctx.status(400);}
+        page(ctx, "login.html");
     }
 
     public void home(Context ctx){
-        try {
-            String content = loadPage("home.html");
-            ctx.html(content);
-            ctx.status(200);
-        } catch (IOException e) {
-            e.printStackTrace();
-            ctx.status(400);}
+        page(ctx, "home.html");
     }
 
     public void register(Context ctx){
-        try {
-            String content = loadPage("create.html");
-            ctx.html(content);
-            ctx.status(200);
-        } catch (IOException e) {
-            e.printStackTrace();
-            ctx.status(400);}
+        page(ctx, "create.html");
+    }
+
+    public void asset(Context ctx) {
+        Asset asset = assetRegistry.getByFingerprintedName(ctx.pathParam("file"));
+        if (asset != null) {
+            asset.send(ctx);
+        } else {
+            ctx.result("Resource not found");
+            ctx.status(404);
+        }
     }
 
-    public void backgroundImage(Context ctx) throws IOException {
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream("images/galaxy-4.jpg")) {
-            if (is != null) {
-                byte[] fileBytes = is.readAllBytes();
-                String imageDataBase64 = Base64.getEncoder().encodeToString(fileBytes);
-                ctx.result(imageDataBase64);
-            } else {
-                // Handle resource not found
-                ctx.result("Resource not found");
-                ctx.status(404);
-            }
+    // kept for clients that still expect the base64 text, pages use the fingerprinted asset url
+    public void backgroundImage(Context ctx) {
+        Asset asset = assetRegistry.get("galaxy-4.jpg");
+        if (asset != null) {
+            asset.sendBase64(ctx);
+        } else {
+            // Handle resource not found
+            ctx.result("Resource not found");
+            ctx.status(404);
         }
     }
 }
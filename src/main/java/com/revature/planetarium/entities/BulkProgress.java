@@ -0,0 +1,70 @@
+package com.revature.planetarium.entities;
+
+import java.util.List;
+
+/*
+ * One line of a streamed bulk import: the running totals after a chunk was committed and the
+ * per-item results of that chunk. The last line has done set to true.
+ */
+public class BulkProgress {
+
+    private int processed;
+    private int total;
+    private int created;
+    private int rejected;
+    private boolean done;
+    private List<BulkResult> results;
+
+    public BulkProgress(){}
+
+    public BulkProgress(int processed, int total, int created, int rejected, boolean done, List<BulkResult> results){
+        this.processed = processed;
+        this.total = total;
+        this.created = created;
+        this.rejected = rejected;
+        this.done = done;
+        this.results = results;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+    public int getTotal() {
+        return total;
+    }
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    public int getCreated() {
+        return created;
+    }
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    public int getRejected() {
+        return rejected;
+    }
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    public boolean isDone() {
+        return done;
+    }
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+    public List<BulkResult> getResults() {
+        return results;
+    }
+    public void setResults(List<BulkResult> results) {
+        this.results = results;
+    }
+    @Override
+    public String toString() {
+        return "BulkProgress [processed=" + processed + ", total=" + total + ", created=" + created + ", rejected=" + rejected + ", done=" + done + "]";
+    }
+
+}
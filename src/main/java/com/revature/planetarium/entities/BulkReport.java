@@ -0,0 +1,47 @@
+package com.revature.planetarium.entities;
+
+import java.util.List;
+
+public class BulkReport {
+
+    private int created;
+    private int rejected;
+    private List<BulkResult> results;
+
+    public BulkReport(){}
+
+    public BulkReport(List<BulkResult> results){
+        this.results = results;
+        for (BulkResult result : results) {
+            if (BulkResult.CREATED.equals(result.getStatus())) {
+                created++;
+            } else {
+                rejected++;
+            }
+        }
+    }
+
+    public int getCreated() {
+        return created;
+    }
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    public int getRejected() {
+        return rejected;
+    }
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    public List<BulkResult> getResults() {
+        return results;
+    }
+    public void setResults(List<BulkResult> results) {
+        this.results = results;
+    }
+    @Override
+    public String toString() {
+        return "BulkReport [created=" + created + ", rejected=" + rejected + "]";
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.revature.planetarium.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResult {
+
+    public static final String CREATED = "created";
+    public static final String REJECTED = "rejected";
+
+    private int index;
+    private String name;
+    private String status;
+    private Integer id;
+    private String message;
+
+    public BulkResult(){}
+
+    public BulkResult(int index, String name){
+        this.index = index;
+        this.name = name;
+    }
+
+    public static BulkResult created(int index, String name, int id) {
+        BulkResult result = new BulkResult(index, name);
+        result.setStatus(CREATED);
+        result.setId(id);
+        return result;
+    }
+
+    public static BulkResult rejected(int index, String name, String message) {
+        BulkResult result = new BulkResult(index, name);
+        result.setStatus(REJECTED);
+        result.setMessage(message);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+    public String getStatus() {
+        return status;
+    }
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    public Integer getId() {
+        return id;
+    }
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    public String getMessage() {
+        return message;
+    }
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    @Override
+    public String toString() {
+        return "BulkResult [index=" + index + ", name=" + name + ", status=" + status + ", id=" + id + ", message=" + message + "]";
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.revature.planetarium.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * A planet as listed in the catalog, with its moons nested. Images are never inlined: planet and
+ * moons only carry an imageUrl when they have an image.
+ */
+public class CatalogPlanet extends Planet {
+
+    private List<Moon> moons = new ArrayList<>();
+
+    public List<Moon> getMoons() {
+        return moons;
+    }
+    public void setMoons(List<Moon> moons) {
+        this.moons = moons;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogPlanet [planetId=" + getPlanetId() + ", planetName=" + getPlanetName() + ", ownerId=" + getOwnerId()
+                + ", moons=" + moons.size() + "]";
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.revature.planetarium.entities;
+
+import java.util.List;
+
+/*
+ * What a DAO delete removed: the id of the deleted row and the hashes of every image it released,
+ * cascaded rows included, so caches can be evicted without reading the row beforehand.
+ */
+public class Deletion {
+
+    private int id;
+    private List<String> imageHashes;
+
+    public Deletion(){}
+
+    public Deletion(int id, List<String> imageHashes){
+        this.id = id;
+        this.imageHashes = imageHashes;
+    }
+
+    public int getId() {
+        return id;
+    }
+    public void setId(int id) {
+        this.id = id;
+    }
+    public List<String> getImageHashes() {
+        return imageHashes;
+    }
+    public void setImageHashes(List<String> imageHashes) {
+        this.imageHashes = imageHashes;
+    }
+    @Override
+    public String toString() {
+        return "Deletion [id=" + id + ", imageHashes=" + imageHashes + "]";
+    }
+
+}
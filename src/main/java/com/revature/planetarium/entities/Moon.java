@@ -3,12 +3,18 @@ package com.revature.planetarium.entities;
 
 import java.util.Base64;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonIgnoreProperties(value = "thumbnailUrl", allowGetters = true)
 public class Moon {
 
     private int moonId;
     private String moonName;
     private int ownerId;
     private byte[] imageData;
+    private String imageUrl;
 
 
     public Moon(){}
@@ -49,6 +55,12 @@ public class Moon {
         }
     }
 
+    // raw image bytes as read from the database, without the base64 round trip of setImageData
+    @JsonIgnore
+    public void setImageBytes(byte[] imageBytes){
+        imageData = imageBytes;
+    }
+
     public byte[] imageDataAsByteArray(){
         if(imageData != null){
             return imageData;
@@ -56,6 +68,19 @@ public class Moon {
             return null;
         }
     }
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getImageUrl() {
+        return imageUrl;
+    }
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+    // set whenever imageUrl is: list views show the thumbnail and load imageUrl only on demand
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getThumbnailUrl() {
+        return imageUrl == null ? null : String.format("/planetarium/moon/%d/thumbnail", moonId);
+    }
+
     @Override
     public String toString() {
         return "Moon [moonId=" + moonId + ", moonName=" + moonName + ", ownerId=" + ownerId + "]";
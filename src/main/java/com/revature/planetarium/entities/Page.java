@@ -0,0 +1,42 @@
+package com.revature.planetarium.entities;
+
+import java.util.List;
+
+public class Page<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private int limit;
+
+    public Page(){}
+
+    public Page(List<T> items, String nextCursor, int limit){
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    public int getLimit() {
+        return limit;
+    }
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+    @Override
+    public String toString() {
+        return "Page [items=" + items.size() + ", nextCursor=" + nextCursor + ", limit=" + limit + "]";
+    }
+
+}
@@ -3,6 +3,11 @@ package com.revature.planetarium.entities;
 
 import java.util.Base64;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonIgnoreProperties(value = "thumbnailUrl", allowGetters = true)
 public class Planet {
     
 
@@ -10,6 +15,7 @@ public class Planet {
     private String planetName;
     private int ownerId;
     private byte[] imageData;
+    private String imageUrl;
     
     public int getPlanetId() {
         return planetId;
@@ -42,6 +48,12 @@ public class Planet {
         }
     }
 
+    // raw image bytes as read from the database, without the base64 round trip of setImageData
+    @JsonIgnore
+    public void setImageBytes(byte[] imageBytes){
+        imageData = imageBytes;
+    }
+
     public byte[] imageDataAsByteArray(){
         if(imageData != null){
             return imageData;
@@ -49,6 +61,19 @@ public class Planet {
             return null;
         }
     }
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getImageUrl() {
+        return imageUrl;
+    }
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+    // set whenever imageUrl is: list views show the thumbnail and load imageUrl only on demand
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getThumbnailUrl() {
+        return imageUrl == null ? null : String.format("/planetarium/planet/%d/thumbnail", planetId);
+    }
+
     @Override
     public String toString() {
         return "Planet [planetId=" + planetId + ", planetName=" + planetName + ", ownerId=" + ownerId + "]";
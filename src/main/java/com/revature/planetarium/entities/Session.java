@@ -0,0 +1,47 @@
+package com.revature.planetarium.entities;
+
+public class Session {
+
+    private String sessionId;
+    private String username;
+    private long expiresAt;
+
+    public Session(){}
+
+    public Session(String sessionId, String username, long expiresAt){
+        this.sessionId = sessionId;
+        this.username = username;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+    public String getUsername() {
+        return username;
+    }
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    // epoch milliseconds after which the session is no longer valid
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        // the id is a credential, so it is left out
+        return "Session [username=" + username + ", expiresAt=" + expiresAt + "]";
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.revature.planetarium.entities;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/*
+ * Where a content-addressed image is stored and how large it is. file is set when the image was
+ * written to the filesystem image store and null when its bytes are kept in the database, where
+ * they are read a range at a time. content is set when the bytes are held in the hot image cache,
+ * as a read-only off-heap buffer that responses are written from directly.
+ */
+public class StoredImage {
+
+    private String hash;
+    private long size;
+    private Path file;
+    private ByteBuffer content;
+
+    public StoredImage(){}
+
+    public StoredImage(String hash, long size, Path file){
+        this.hash = hash;
+        this.size = size;
+        this.file = file;
+    }
+
+    public StoredImage(String hash, ByteBuffer content){
+        this.hash = hash;
+        this.size = content.remaining();
+        this.content = content;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+    public long getSize() {
+        return size;
+    }
+    public void setSize(long size) {
+        this.size = size;
+    }
+    public Path getFile() {
+        return file;
+    }
+    public void setFile(Path file) {
+        this.file = file;
+    }
+    public boolean isFile() {
+        return file != null;
+    }
+    public ByteBuffer getContent() {
+        return content;
+    }
+    public void setContent(ByteBuffer content) {
+        this.content = content;
+    }
+    public boolean isCached() {
+        return content != null;
+    }
+
+    @Override
+    public String toString() {
+        return "StoredImage [hash=" + hash + ", size=" + size + ", file=" + file + ", cached=" + isCached() + "]";
+    }
+
+}
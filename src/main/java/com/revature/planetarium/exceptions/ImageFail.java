@@ -0,0 +1,9 @@
+package com.revature.planetarium.exceptions;
+
+public class ImageFail extends RuntimeException{
+
+    public ImageFail(String message) {
+        super(message);
+    }
+    
+}
@@ -0,0 +1,68 @@
+package com.revature.planetarium.repository.image;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import com.revature.planetarium.entities.StoredImage;
+import com.revature.planetarium.utility.ImageResponses;
+import com.revature.planetarium.utility.OffHeapImageCache;
+
+/*
+ * Read-through cache in front of an ImageDao for images held in the database. A miss copies the
+ * image into a direct buffer a chunk at a time, so filling the cache puts no more of it on the heap
+ * than streaming it does, and later reads are answered from that buffer without a query. Images in
+ * the filesystem store are left to the page cache, which already serves them off-heap.
+ */
+public class CachingImageDao implements ImageDao {
+
+    private final ImageDao imageDao;
+    private final OffHeapImageCache imageCache;
+
+    public CachingImageDao(ImageDao imageDao, OffHeapImageCache imageCache) {
+        this.imageDao = imageDao;
+        this.imageCache = imageCache;
+    }
+
+    @Override
+    public Optional<StoredImage> readImage(String hash) {
+        ByteBuffer cached = imageCache.get(hash);
+        if (cached != null) {
+            return Optional.of(new StoredImage(hash, cached));
+        }
+        Optional<StoredImage> image = imageDao.readImage(hash);
+        if (image.isEmpty() || image.get().isFile() || !imageCache.admits(image.get().getSize())) {
+            return image;
+        }
+        ByteBuffer content = fill(hash, (int) image.get().getSize());
+        return content == null ? image : Optional.of(new StoredImage(hash, imageCache.put(hash, content)));
+    }
+
+    @Override
+    public Optional<byte[]> readImageRange(String hash, long offset, int length) {
+        ByteBuffer cached = imageCache.get(hash);
+        if (cached == null) {
+            return imageDao.readImageRange(hash, offset, length);
+        }
+        if (offset >= cached.remaining()) {
+            return Optional.of(new byte[0]);
+        }
+        byte[] range = new byte[(int) Math.min(length, cached.remaining() - offset)];
+        cached.position((int) offset);
+        cached.get(range);
+        return Optional.of(range);
+    }
+
+    // null when the image was deleted or moved to a file while it was being read
+    private ByteBuffer fill(String hash, int size) {
+        ByteBuffer content = ByteBuffer.allocateDirect(size);
+        while (content.hasRemaining()) {
+            Optional<byte[]> chunk = imageDao.readImageRange(hash, content.position(), Math.min(ImageResponses.CHUNK_BYTES, content.remaining()));
+            if (chunk.isEmpty() || chunk.get().length == 0 || chunk.get().length > content.remaining()) {
+                return null;
+            }
+            content.put(chunk.get());
+        }
+        return content;
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.revature.planetarium.repository.image;
+
+import java.util.Optional;
+
+import com.revature.planetarium.entities.StoredImage;
+
+public interface ImageDao {
+
+    Optional<StoredImage> readImage(String hash);
+    Optional<byte[]> readImageRange(String hash, long offset, int length);
+
+}
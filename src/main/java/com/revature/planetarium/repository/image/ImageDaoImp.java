@@ -0,0 +1,94 @@
+package com.revature.planetarium.repository.image;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import com.revature.planetarium.entities.StoredImage;
+import com.revature.planetarium.exceptions.ImageFail;
+import com.revature.planetarium.utility.DatabaseConnector;
+import com.revature.planetarium.utility.Hashing;
+import com.revature.planetarium.utility.ImageFiles;
+
+/*
+ * Content-addressed image storage (migration V5). Each distinct image is stored once under the hex
+ * SHA-256 of its bytes; planets and moons reference it by that hash and triggers keep its reference
+ * count, so an image disappears with its last planet or moon. The bytes live in the images row or,
+ * with the filesystem store, in the file ImageFiles keeps for the hash.
+ */
+public class ImageDaoImp implements ImageDao {
+
+    public static final String URL_PREFIX = "/images/";
+
+    /*
+     * Stores image unless identical content is already stored and returns its hash, or null for no
+     * image. Must run in the transaction that inserts the referencing row: the image starts with no
+     * references and only the insert trigger of that row counts it. With the filesystem store the
+     * file is written after the row, once the insert holds the write lock.
+     */
+    public static String storeImage(Connection conn, byte[] image) throws SQLException {
+        if (image == null) {
+            return null;
+        }
+        String hash = Hashing.sha256Hex(image);
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO images (hash, image, size) VALUES (?, ?, ?) ON CONFLICT(hash) DO NOTHING")) {
+            stmt.setString(1, hash);
+            stmt.setBytes(2, ImageFiles.ENABLED ? null : image);
+            stmt.setInt(3, image.length);
+            if (stmt.executeUpdate() > 0 && ImageFiles.ENABLED) {
+                ImageFiles.write(hash, image);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Could not write image file for " + hash + ": " + e, e);
+        }
+        return hash;
+    }
+
+    public static String urlFor(String hash) {
+        return hash == null ? null : URL_PREFIX + hash;
+    }
+
+    @Override
+    public Optional<StoredImage> readImage(String hash) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT size, image IS NULL AS inFile FROM images WHERE hash = ?")) {
+            stmt.setString(1, hash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(new StoredImage(hash, rs.getLong("size"), rs.getBoolean("inFile") ? ImageFiles.pathFor(hash) : null));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new ImageFail(e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /*
+     * length bytes of a database-held image starting at offset, so a response can be written a
+     * bounded chunk at a time; empty when the image is gone or held in a file.
+     */
+    @Override
+    public Optional<byte[]> readImageRange(String hash, long offset, int length) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT substr(image, ?, ?) AS chunk FROM images WHERE hash = ?")) {
+            stmt.setLong(1, offset + 1);
+            stmt.setInt(2, length);
+            stmt.setString(3, hash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getBytes("chunk"));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new ImageFail(e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.revature.planetarium.repository.moon;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.revature.planetarium.entities.Deletion;
+import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.utility.EntityCache;
+import com.revature.planetarium.utility.OffHeapImageCache;
+
+/*
+ * Read-through cache in front of a MoonDao for the single moon lookups. Writes go straight to the
+ * delegate and then invalidate the affected entries; deleting a moon also drops its image from the
+ * image cache.
+ */
+public class CachingMoonDao implements MoonDao {
+
+    private final MoonDao moonDao;
+    private final EntityCache<Moon> moonCache;
+    private final OffHeapImageCache imageCache;
+
+    public CachingMoonDao(MoonDao moonDao, EntityCache<Moon> moonCache, OffHeapImageCache imageCache) {
+        this.moonDao = moonDao;
+        this.moonCache = moonCache;
+        this.imageCache = imageCache;
+    }
+
+    public static EntityCache<Moon> createCache(long maxBytes, long ttlMillis) {
+        return new EntityCache<>("moons", maxBytes, ttlMillis, Moon::getMoonId, Moon::getMoonName,
+                moon -> {
+                    byte[] image = moon.imageDataAsByteArray();
+                    return 64 + 2L * moon.getMoonName().length() + (image == null ? 0 : image.length);
+                });
+    }
+
+    @Override
+    public Optional<Moon> createMoon(Moon moon) {
+        moonCache.invalidateName(moon.getMoonName());
+        return moonDao.createMoon(moon);
+    }
+
+    @Override
+    public List<Moon> createMoons(List<Moon> moons) {
+        for (Moon moon : moons) {
+            moonCache.invalidateName(moon.getMoonName());
+        }
+        return moonDao.createMoons(moons);
+    }
+
+    @Override
+    public Set<String> readExistingMoonNames(Collection<String> names) {
+        return moonDao.readExistingMoonNames(names);
+    }
+
+    @Override
+    public Set<Integer> readExistingPlanetIds(Collection<Integer> planetIds) {
+        return moonDao.readExistingPlanetIds(planetIds);
+    }
+
+    @Override
+    public Optional<Moon> readMoon(int id) {
+        long stamp = moonCache.stamp();
+        Moon cached = moonCache.getById(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Moon> moon = moonDao.readMoon(id);
+        moon.ifPresent(found -> moonCache.put(found, stamp));
+        return moon;
+    }
+
+    @Override
+    public Optional<Moon> readMoon(String name) {
+        long stamp = moonCache.stamp();
+        Moon cached = moonCache.getByName(name);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Moon> moon = moonDao.readMoon(name);
+        moon.ifPresent(found -> moonCache.put(found, stamp));
+        return moon;
+    }
+
+    @Override
+    public List<Moon> readAllMoons() {
+        return moonDao.readAllMoons();
+    }
+
+    @Override
+    public List<Moon> readAllMoonSummaries() {
+        return moonDao.readAllMoonSummaries();
+    }
+
+    @Override
+    public List<Moon> readMoonsByPlanet(int planetId) {
+        return moonDao.readMoonsByPlanet(planetId);
+    }
+
+    @Override
+    public List<Moon> readMoonSummariesByPlanet(int planetId) {
+        return moonDao.readMoonSummariesByPlanet(planetId);
+    }
+
+    @Override
+    public List<Moon> readMoonPage(int afterId, int limit, boolean includeImages) {
+        return moonDao.readMoonPage(afterId, limit, includeImages);
+    }
+
+    @Override
+    public List<Moon> readMoonPageByPlanet(int planetId, int afterId, int limit, boolean includeImages) {
+        return moonDao.readMoonPageByPlanet(planetId, afterId, limit, includeImages);
+    }
+
+    @Override
+    public Optional<byte[]> readMoonImage(int id) {
+        return moonDao.readMoonImage(id);
+    }
+
+    @Override
+    public Optional<String> readMoonImageHash(int id) {
+        return moonDao.readMoonImageHash(id);
+    }
+
+    @Override
+    public Optional<byte[]> readMoonThumbnail(int id, int size) {
+        return moonDao.readMoonThumbnail(id, size);
+    }
+
+    @Override
+    public long readDataVersion() {
+        return moonDao.readDataVersion();
+    }
+
+    @Override
+    public Optional<Moon> updateMoon(Moon moon) {
+        try {
+            return moonDao.updateMoon(moon);
+        } finally {
+            moonCache.invalidate(moon.getMoonId());
+            moonCache.invalidateName(moon.getMoonName());
+        }
+    }
+
+    @Override
+    public Optional<Deletion> deleteMoon(int id) {
+        Optional<Deletion> deleted = Optional.empty();
+        try {
+            deleted = moonDao.deleteMoon(id);
+            return deleted;
+        } finally {
+            moonCache.invalidate(id);
+            evictImages(deleted);
+        }
+    }
+
+    @Override
+    public Optional<Deletion> deleteMoon(String name) {
+        Optional<Deletion> deleted = Optional.empty();
+        try {
+            deleted = moonDao.deleteMoon(name);
+            return deleted;
+        } finally {
+            moonCache.invalidateName(name);
+            deleted.ifPresent(deletion -> moonCache.invalidate(deletion.getId()));
+            evictImages(deleted);
+        }
+    }
+
+    private void evictImages(Optional<Deletion> deleted) {
+        deleted.ifPresent(deletion -> deletion.getImageHashes().forEach(imageCache::invalidate));
+    }
+
+}
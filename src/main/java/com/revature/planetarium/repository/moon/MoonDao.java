@@ -1,19 +1,33 @@
 package com.revature.planetarium.repository.moon;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import com.revature.planetarium.entities.Deletion;
 import com.revature.planetarium.entities.Moon;
 
 public interface MoonDao {
 
     Optional<Moon> createMoon(Moon moon);
+    List<Moon> createMoons(List<Moon> moons);
+    Set<String> readExistingMoonNames(Collection<String> names);
+    Set<Integer> readExistingPlanetIds(Collection<Integer> planetIds);
     Optional<Moon> readMoon(int id);
     Optional<Moon> readMoon(String name);
     List<Moon> readAllMoons();
+    List<Moon> readAllMoonSummaries();
     List<Moon> readMoonsByPlanet(int planetId);
+    List<Moon> readMoonSummariesByPlanet(int planetId);
+    List<Moon> readMoonPage(int afterId, int limit, boolean includeImages);
+    List<Moon> readMoonPageByPlanet(int planetId, int afterId, int limit, boolean includeImages);
+    Optional<byte[]> readMoonImage(int id);
+    Optional<String> readMoonImageHash(int id);
+    Optional<byte[]> readMoonThumbnail(int id, int size);
+    long readDataVersion();
     Optional<Moon> updateMoon(Moon moon);
-    boolean deleteMoon(int id);
-    boolean deleteMoon(String name);
+    Optional<Deletion> deleteMoon(int id);
+    Optional<Deletion> deleteMoon(String name);
 
 }
@@ -7,41 +7,155 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import com.revature.planetarium.entities.Deletion;
 import com.revature.planetarium.entities.Moon;
 import com.revature.planetarium.exceptions.MoonFail;
+import com.revature.planetarium.repository.image.ImageDaoImp;
 import com.revature.planetarium.utility.DatabaseConnector;
+import com.revature.planetarium.utility.ImageFiles;
+import com.revature.planetarium.utility.SqlConstraints;
+import com.revature.planetarium.utility.SqlLists;
+import com.revature.planetarium.utility.Thumbnailer;
 
 public class MoonDaoImp implements MoonDao {
 
+    // moons with the bytes of their image, for the reads that return them
+    private static final String WITH_IMAGES = "moons LEFT JOIN images ON images.hash = moons.imageHash";
+
+    /*
+     * Duplicate names are rejected by the unique index on moons(name), so callers need no read
+     * beforehand; the violation is reported with the same message the service used to produce. The
+     * image is stored (or found already stored) in the same transaction as the moon.
+     */
     @Override
     public Optional<Moon> createMoon(Moon moon) {
-        try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("INSERT INTO moons (name, myPlanetId, image) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)){
-            stmt.setString(1, moon.getMoonName());
-            stmt.setInt(2, moon.getOwnerId());
-            stmt.setBytes(3, moon.imageDataAsByteArray());
-            stmt.executeUpdate();
-            try (ResultSet rs = stmt.getGeneratedKeys()){
-                if (rs.next()) {
-                    int newMoonId = rs.getInt(1);
-                    moon.setMoonId(newMoonId);
-                    return Optional.of(moon);
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            byte[] image = moon.imageDataAsByteArray();
+            String imageHash = ImageDaoImp.storeImage(conn, image);
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO moons (name, myPlanetId, imageHash) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, moon.getMoonName());
+                stmt.setInt(2, moon.getOwnerId());
+                stmt.setString(3, imageHash);
+                stmt.executeUpdate();
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        int newMoonId = rs.getInt(1);
+                        conn.commit();
+                        moon.setMoonId(newMoonId);
+                        Thumbnailer.schedule(Thumbnailer.Kind.MOON, newMoonId, image);
+                        return Optional.of(moon);
+                    }
                 }
             }
         } catch (SQLException e) {
             System.out.println(e);
+            if (SqlConstraints.isUniqueViolation(e)) {
+                throw new MoonFail("Moon name must be unique");
+            }
             throw new MoonFail(e.getMessage());
         }
         return Optional.empty();
     }
 
+    /*
+     * Batched insert of one chunk in a single transaction; ids are recovered the same way as in
+     * PlanetDaoImp.createPlanets.
+     */
+    @Override
+    public List<Moon> createMoons(List<Moon> moons) {
+        if (moons.isEmpty()) {
+            return moons;
+        }
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            List<String> imageHashes = new ArrayList<>();
+            for (Moon moon : moons) {
+                imageHashes.add(ImageDaoImp.storeImage(conn, moon.imageDataAsByteArray()));
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO moons (name, myPlanetId, imageHash) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < moons.size(); i++) {
+                    stmt.setString(1, moons.get(i).getMoonName());
+                    stmt.setInt(2, moons.get(i).getOwnerId());
+                    stmt.setString(3, imageHashes.get(i));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                int id = rs.next() ? rs.getInt(1) - moons.size() : 0;
+                for (Moon moon : moons) {
+                    moon.setMoonId(++id);
+                }
+            }
+            conn.commit();
+            for (Moon moon : moons) {
+                Thumbnailer.schedule(Thumbnailer.Kind.MOON, moon.getMoonId(), moon.imageDataAsByteArray());
+            }
+            return moons;
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+    }
+
+    @Override
+    public Set<String> readExistingMoonNames(Collection<String> names) {
+        Set<String> existing = new HashSet<>();
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            for (List<String> chunk : SqlLists.chunks(names, SqlLists.CHUNK_SIZE)) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT name FROM moons WHERE name IN (" + SqlLists.placeholders(chunk.size()) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getString("name"));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+        return existing;
+    }
+
+    @Override
+    public Set<Integer> readExistingPlanetIds(Collection<Integer> planetIds) {
+        Set<Integer> existing = new HashSet<>();
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            for (List<Integer> chunk : SqlLists.chunks(planetIds, SqlLists.CHUNK_SIZE)) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM planets WHERE id IN (" + SqlLists.placeholders(chunk.size()) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getInt("id"));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+        return existing;
+    }
+
     @Override
     public Optional<Moon> readMoon(int id) {
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM moons WHERE id = ?")) {
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, myPlanetId, imageHash, image FROM " + WITH_IMAGES + " WHERE id = ?")) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -49,7 +163,7 @@ public class MoonDaoImp implements MoonDao {
                 moon.setMoonId(rs.getInt("id"));
                 moon.setMoonName(rs.getString("name"));
                 moon.setOwnerId(rs.getInt("myPlanetId"));
-                byte[] byteImageData = rs.getBytes("image");
+                byte[] byteImageData = ImageFiles.imageBytes(rs);
                 if (byteImageData != null){
                     String base64ImageData = Base64.getEncoder().encodeToString(byteImageData);
                     moon.setImageData(base64ImageData);
@@ -66,7 +180,7 @@ public class MoonDaoImp implements MoonDao {
     @Override
     public Optional<Moon> readMoon(String name) {
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM moons WHERE name = ?")) {
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, myPlanetId, imageHash, image FROM " + WITH_IMAGES + " WHERE name = ?")) {
             stmt.setString(1, name);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -74,7 +188,7 @@ public class MoonDaoImp implements MoonDao {
                 moon.setMoonId(rs.getInt("id"));
                 moon.setMoonName(rs.getString("name"));
                 moon.setOwnerId(rs.getInt("myPlanetId"));
-                byte[] byteImageData = rs.getBytes("image");
+                byte[] byteImageData = ImageFiles.imageBytes(rs);
                 if (byteImageData != null){
                     String base64ImageData = Base64.getEncoder().encodeToString(byteImageData);
                     moon.setImageData(base64ImageData);
@@ -92,14 +206,14 @@ public class MoonDaoImp implements MoonDao {
     public List<Moon> readAllMoons() {
         List<Moon> moons = new ArrayList<>();
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM moons")) {
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, myPlanetId, imageHash, image FROM " + WITH_IMAGES)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 Moon moon = new Moon();
                 moon.setMoonId(rs.getInt("id"));
                 moon.setMoonName(rs.getString("name"));
                 moon.setOwnerId(rs.getInt("myPlanetId"));
-                byte[] byteImageData = rs.getBytes("image");
+                byte[] byteImageData = ImageFiles.imageBytes(rs);
                 if (byteImageData != null){
                     String base64ImageData = Base64.getEncoder().encodeToString(byteImageData);
                     moon.setImageData(base64ImageData);
@@ -113,11 +227,33 @@ public class MoonDaoImp implements MoonDao {
         return moons;
     }
 
+    @Override
+    public List<Moon> readAllMoonSummaries() {
+        List<Moon> moons = new ArrayList<>();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, myPlanetId, imageHash FROM moons")) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Moon moon = new Moon();
+                    moon.setMoonId(rs.getInt("id"));
+                    moon.setMoonName(rs.getString("name"));
+                    moon.setOwnerId(rs.getInt("myPlanetId"));
+                    moon.setImageUrl(ImageDaoImp.urlFor(rs.getString("imageHash")));
+                    moons.add(moon);
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+        return moons;
+    }
+
     @Override
     public List<Moon> readMoonsByPlanet(int planetId) {
         List<Moon> moons = new ArrayList<>();
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM moons WHERE myPlanetId = ?")) {
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, myPlanetId, imageHash, image FROM " + WITH_IMAGES + " WHERE myPlanetId = ?")) {
             stmt.setInt(1, planetId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -125,7 +261,7 @@ public class MoonDaoImp implements MoonDao {
                 moon.setMoonId(rs.getInt("id"));
                 moon.setMoonName(rs.getString("name"));
                 moon.setOwnerId(rs.getInt("myPlanetId"));
-                byte[] byteImageData = rs.getBytes("image");
+                byte[] byteImageData = ImageFiles.imageBytes(rs);
                 if (byteImageData != null){
                     String base64ImageData = Base64.getEncoder().encodeToString(byteImageData);
                     moon.setImageData(base64ImageData);
@@ -140,44 +276,196 @@ public class MoonDaoImp implements MoonDao {
     }
 
     @Override
-    public Optional<Moon> updateMoon(Moon moon) {
+    public List<Moon> readMoonSummariesByPlanet(int planetId) {
+        List<Moon> moons = new ArrayList<>();
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("UPDATE moons SET name = ?, myPlanetId = ? WHERE id = ?")) {
-            stmt.setString(1, moon.getMoonName());
-            stmt.setInt(2, moon.getOwnerId());
-            stmt.setInt(3, moon.getMoonId());
-            int rowsUpdated = stmt.executeUpdate();
-            return rowsUpdated > 0 ? Optional.of(moon) : Optional.empty();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, myPlanetId, imageHash FROM moons WHERE myPlanetId = ?")) {
+            stmt.setInt(1, planetId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Moon moon = new Moon();
+                    moon.setMoonId(rs.getInt("id"));
+                    moon.setMoonName(rs.getString("name"));
+                    moon.setOwnerId(rs.getInt("myPlanetId"));
+                    moon.setImageUrl(ImageDaoImp.urlFor(rs.getString("imageHash")));
+                    moons.add(moon);
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+        return moons;
+    }
+
+    @Override
+    public List<Moon> readMoonPage(int afterId, int limit, boolean includeImages) {
+        List<Moon> moons = new ArrayList<>();
+        String query = includeImages ? "SELECT id, name, myPlanetId, imageHash, image FROM " + WITH_IMAGES : "SELECT id, name, myPlanetId, imageHash FROM moons";
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query + " WHERE id > ? ORDER BY id LIMIT ?")) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    moons.add(mapMoon(rs, includeImages));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+        return moons;
+    }
+
+    @Override
+    public List<Moon> readMoonPageByPlanet(int planetId, int afterId, int limit, boolean includeImages) {
+        List<Moon> moons = new ArrayList<>();
+        String query = includeImages ? "SELECT id, name, myPlanetId, imageHash, image FROM " + WITH_IMAGES : "SELECT id, name, myPlanetId, imageHash FROM moons";
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query + " WHERE myPlanetId = ? AND id > ? ORDER BY id LIMIT ?")) {
+            stmt.setInt(1, planetId);
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    moons.add(mapMoon(rs, includeImages));
+                }
+            }
         } catch (SQLException e) {
             System.out.println(e);
             throw new MoonFail(e.getMessage());
         }
+        return moons;
+    }
+
+    private Moon mapMoon(ResultSet rs, boolean includeImages) throws SQLException {
+        Moon moon = new Moon();
+        moon.setMoonId(rs.getInt("id"));
+        moon.setMoonName(rs.getString("name"));
+        moon.setOwnerId(rs.getInt("myPlanetId"));
+        if (includeImages) {
+            moon.setImageBytes(ImageFiles.imageBytes(rs));
+        } else {
+            moon.setImageUrl(ImageDaoImp.urlFor(rs.getString("imageHash")));
+        }
+        return moon;
     }
 
     @Override
-    public boolean deleteMoon(int id) {
+    public Optional<byte[]> readMoonImage(int id) {
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("DELETE FROM moons WHERE id = ?")) {
+             PreparedStatement stmt = conn.prepareStatement("SELECT imageHash, image FROM " + WITH_IMAGES + " WHERE id = ?")) {
             stmt.setInt(1, id);
-            int rowsDeleted = stmt.executeUpdate();
-            return rowsDeleted > 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(ImageFiles.imageBytes(rs));
+                }
+            }
         } catch (SQLException e) {
             System.out.println(e);
             throw new MoonFail(e.getMessage());
         }
+        return Optional.empty();
     }
 
     @Override
-    public boolean deleteMoon(String name) {
+    public Optional<String> readMoonImageHash(int id) {
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("DELETE FROM moons WHERE name = ?")) {
-            stmt.setString(1, name);
-            int rowsDeleted = stmt.executeUpdate();
-            return rowsDeleted > 0;
+             PreparedStatement stmt = conn.prepareStatement("SELECT imageHash FROM moons WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getString("imageHash"));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<byte[]> readMoonThumbnail(int id, int size) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT image FROM moon_thumbnails WHERE moonId = ? AND size = ?")) {
+            stmt.setInt(1, id);
+            stmt.setInt(2, size);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getBytes("image"));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public long readDataVersion() {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT version FROM data_versions WHERE name = 'moons'");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong("version") : 0;
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<Moon> updateMoon(Moon moon) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE moons SET name = ?, myPlanetId = ? WHERE id = ?")) {
+            stmt.setString(1, moon.getMoonName());
+            stmt.setInt(2, moon.getOwnerId());
+            stmt.setInt(3, moon.getMoonId());
+            int rowsUpdated = stmt.executeUpdate();
+            return rowsUpdated > 0 ? Optional.of(moon) : Optional.empty();
         } catch (SQLException e) {
             System.out.println(e);
+            if (SqlConstraints.isUniqueViolation(e)) {
+                throw new MoonFail("Moon name must be unique, could not update");
+            }
             throw new MoonFail(e.getMessage());
         }
     }
-    
+
+    @Override
+    public Optional<Deletion> deleteMoon(int id) {
+        return deleteMoonWhere("id", id);
+    }
+
+    @Override
+    public Optional<Deletion> deleteMoon(String name) {
+        return deleteMoonWhere("name", name);
+    }
+
+    // the moon's id and image hash come back from the delete itself, through RETURNING
+    private Optional<Deletion> deleteMoonWhere(String column, Object key) {
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            Optional<Deletion> deleted = Optional.empty();
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM moons WHERE " + column + " = ? RETURNING id, imageHash")) {
+                stmt.setObject(1, key);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        String imageHash = rs.getString("imageHash");
+                        deleted = Optional.of(new Deletion(rs.getInt("id"), imageHash == null ? List.of() : List.of(imageHash)));
+                    }
+                }
+            }
+            List<String> unreferenced = deleted.isPresent() ? ImageFiles.deleteUnreferenced(conn) : List.of();
+            conn.commit();
+            ImageFiles.deleteFiles(conn, unreferenced);
+            return deleted;
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new MoonFail(e.getMessage());
+        }
+    }
+
 }
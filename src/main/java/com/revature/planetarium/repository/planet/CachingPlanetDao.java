@@ -0,0 +1,189 @@
+package com.revature.planetarium.repository.planet;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.revature.planetarium.entities.CatalogPlanet;
+import com.revature.planetarium.entities.Deletion;
+import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.entities.Planet;
+import com.revature.planetarium.utility.EntityCache;
+import com.revature.planetarium.utility.OffHeapImageCache;
+
+/*
+ * Read-through cache in front of a PlanetDao for the single planet lookups. Writes go straight to the
+ * delegate and then invalidate the affected entries; deleting a planet also drops its moons from the
+ * moon cache because the database removes them through ON DELETE CASCADE, and drops the images of
+ * the planet and its moons from the image cache.
+ */
+public class CachingPlanetDao implements PlanetDao {
+
+    private final PlanetDao planetDao;
+    private final EntityCache<Planet> planetCache;
+    private final EntityCache<Moon> moonCache;
+    private final OffHeapImageCache imageCache;
+
+    public CachingPlanetDao(PlanetDao planetDao, EntityCache<Planet> planetCache, EntityCache<Moon> moonCache,
+                            OffHeapImageCache imageCache) {
+        this.planetDao = planetDao;
+        this.planetCache = planetCache;
+        this.moonCache = moonCache;
+        this.imageCache = imageCache;
+    }
+
+    public static EntityCache<Planet> createCache(long maxBytes, long ttlMillis) {
+        return new EntityCache<>("planets", maxBytes, ttlMillis, Planet::getPlanetId, Planet::getPlanetName,
+                planet -> {
+                    byte[] image = planet.imageDataAsByteArray();
+                    return 64 + 2L * planet.getPlanetName().length() + (image == null ? 0 : image.length);
+                });
+    }
+
+    @Override
+    public Optional<Planet> createPlanet(Planet planet) {
+        planetCache.invalidateName(planet.getPlanetName());
+        return planetDao.createPlanet(planet);
+    }
+
+    @Override
+    public List<Planet> createPlanets(List<Planet> planets) {
+        for (Planet planet : planets) {
+            planetCache.invalidateName(planet.getPlanetName());
+        }
+        return planetDao.createPlanets(planets);
+    }
+
+    @Override
+    public Set<String> readExistingPlanetNames(Collection<String> names) {
+        return planetDao.readExistingPlanetNames(names);
+    }
+
+    @Override
+    public Set<Integer> readExistingOwnerIds(Collection<Integer> ownerIds) {
+        return planetDao.readExistingOwnerIds(ownerIds);
+    }
+
+    @Override
+    public Optional<Planet> readPlanet(int id) {
+        long stamp = planetCache.stamp();
+        Planet cached = planetCache.getById(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Planet> planet = planetDao.readPlanet(id);
+        planet.ifPresent(found -> planetCache.put(found, stamp));
+        return planet;
+    }
+
+    @Override
+    public Optional<Planet> readPlanet(String name) {
+        long stamp = planetCache.stamp();
+        Planet cached = planetCache.getByName(name);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Planet> planet = planetDao.readPlanet(name);
+        planet.ifPresent(found -> planetCache.put(found, stamp));
+        return planet;
+    }
+
+    @Override
+    public List<Planet> readAllPlanets() {
+        return planetDao.readAllPlanets();
+    }
+
+    @Override
+    public List<Planet> readAllPlanetSummaries() {
+        return planetDao.readAllPlanetSummaries();
+    }
+
+    @Override
+    public List<Planet> readPlanetsByOwner(int ownerId) {
+        return planetDao.readPlanetsByOwner(ownerId);
+    }
+
+    @Override
+    public List<Planet> readPlanetSummariesByOwner(int ownerId) {
+        return planetDao.readPlanetSummariesByOwner(ownerId);
+    }
+
+    @Override
+    public List<Planet> readPlanetPage(int afterId, int limit, boolean includeImages) {
+        return planetDao.readPlanetPage(afterId, limit, includeImages);
+    }
+
+    @Override
+    public List<Planet> readPlanetPageByOwner(int ownerId, int afterId, int limit, boolean includeImages) {
+        return planetDao.readPlanetPageByOwner(ownerId, afterId, limit, includeImages);
+    }
+
+    @Override
+    public List<CatalogPlanet> readCatalogPage(Integer ownerId, int afterId, int limit) {
+        return planetDao.readCatalogPage(ownerId, afterId, limit);
+    }
+
+    @Override
+    public Optional<byte[]> readPlanetImage(int id) {
+        return planetDao.readPlanetImage(id);
+    }
+
+    @Override
+    public Optional<String> readPlanetImageHash(int id) {
+        return planetDao.readPlanetImageHash(id);
+    }
+
+    @Override
+    public Optional<byte[]> readPlanetThumbnail(int id, int size) {
+        return planetDao.readPlanetThumbnail(id, size);
+    }
+
+    @Override
+    public long readDataVersion() {
+        return planetDao.readDataVersion();
+    }
+
+    @Override
+    public Optional<Planet> updatePlanet(Planet planet) {
+        try {
+            return planetDao.updatePlanet(planet);
+        } finally {
+            planetCache.invalidate(planet.getPlanetId());
+            planetCache.invalidateName(planet.getPlanetName());
+        }
+    }
+
+    @Override
+    public Optional<Deletion> deletePlanet(int id) {
+        Optional<Deletion> deleted = Optional.empty();
+        try {
+            deleted = planetDao.deletePlanet(id);
+            return deleted;
+        } finally {
+            planetCache.invalidate(id);
+            evict(deleted);
+        }
+    }
+
+    @Override
+    public Optional<Deletion> deletePlanet(String name) {
+        Optional<Deletion> deleted = Optional.empty();
+        try {
+            deleted = planetDao.deletePlanet(name);
+            return deleted;
+        } finally {
+            planetCache.invalidateName(name);
+            evict(deleted);
+        }
+    }
+
+    private void evict(Optional<Deletion> deleted) {
+        deleted.ifPresent(deletion -> {
+            planetCache.invalidate(deletion.getId());
+            moonCache.invalidateIf(moon -> moon.getOwnerId() == deletion.getId());
+            deletion.getImageHashes().forEach(imageCache::invalidate);
+        });
+    }
+
+}
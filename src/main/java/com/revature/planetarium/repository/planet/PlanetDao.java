@@ -1,19 +1,35 @@
 package com.revature.planetarium.repository.planet;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import com.revature.planetarium.entities.CatalogPlanet;
+import com.revature.planetarium.entities.Deletion;
 import com.revature.planetarium.entities.Planet;
 
 public interface PlanetDao {
 
     Optional<Planet> createPlanet(Planet planet);
+    List<Planet> createPlanets(List<Planet> planets);
+    Set<String> readExistingPlanetNames(Collection<String> names);
+    Set<Integer> readExistingOwnerIds(Collection<Integer> ownerIds);
     Optional<Planet> readPlanet(int id);
     Optional<Planet> readPlanet(String name);
     List<Planet> readAllPlanets();
+    List<Planet> readAllPlanetSummaries();
     List<Planet> readPlanetsByOwner(int ownerId);
+    List<Planet> readPlanetSummariesByOwner(int ownerId);
+    List<Planet> readPlanetPage(int afterId, int limit, boolean includeImages);
+    List<Planet> readPlanetPageByOwner(int ownerId, int afterId, int limit, boolean includeImages);
+    List<CatalogPlanet> readCatalogPage(Integer ownerId, int afterId, int limit);
+    Optional<byte[]> readPlanetImage(int id);
+    Optional<String> readPlanetImageHash(int id);
+    Optional<byte[]> readPlanetThumbnail(int id, int size);
+    long readDataVersion();
     Optional<Planet> updatePlanet(Planet planet);
-    boolean deletePlanet(int id);
-    boolean deletePlanet(String name);
+    Optional<Deletion> deletePlanet(int id);
+    Optional<Deletion> deletePlanet(String name);
 
 }
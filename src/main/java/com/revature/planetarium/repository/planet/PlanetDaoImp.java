@@ -7,37 +7,155 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import com.revature.planetarium.entities.CatalogPlanet;
+import com.revature.planetarium.entities.Deletion;
+import com.revature.planetarium.entities.Moon;
 import com.revature.planetarium.entities.Planet;
 import com.revature.planetarium.exceptions.PlanetFail;
+import com.revature.planetarium.repository.image.ImageDaoImp;
 import com.revature.planetarium.utility.DatabaseConnector;
+import com.revature.planetarium.utility.ImageFiles;
+import com.revature.planetarium.utility.SqlConstraints;
+import com.revature.planetarium.utility.SqlLists;
+import com.revature.planetarium.utility.Thumbnailer;
 
 public class PlanetDaoImp implements PlanetDao {
 
+    // planets with the bytes of their image, for the reads that return them
+    private static final String WITH_IMAGES = "planets LEFT JOIN images ON images.hash = planets.imageHash";
+
+    /*
+     * Duplicate names are rejected by the unique index on planets(name), so callers need no read
+     * beforehand; the violation is reported with the same message the service used to produce. The
+     * image is stored (or found already stored) in the same transaction as the planet.
+     */
     @Override
     public Optional<Planet> createPlanet(Planet planet) {
-        try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("INSERT INTO planets (name, ownerId, image) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)){
-            stmt.setString(1, planet.getPlanetName());
-            stmt.setInt(2, planet.getOwnerId());
-            stmt.setBytes(3, planet.imageDataAsByteArray());
-            stmt.executeUpdate();
-            try (ResultSet rs = stmt.getGeneratedKeys()){
-                if (rs.next()) {
-                    int newPlanetId = rs.getInt(1);
-                    planet.setPlanetId(newPlanetId);
-                    return Optional.of(planet);
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            byte[] image = planet.imageDataAsByteArray();
+            String imageHash = ImageDaoImp.storeImage(conn, image);
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO planets (name, ownerId, imageHash) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, planet.getPlanetName());
+                stmt.setInt(2, planet.getOwnerId());
+                stmt.setString(3, imageHash);
+                stmt.executeUpdate();
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        int newPlanetId = rs.getInt(1);
+                        conn.commit();
+                        planet.setPlanetId(newPlanetId);
+                        Thumbnailer.schedule(Thumbnailer.Kind.PLANET, newPlanetId, image);
+                        return Optional.of(planet);
+                    }
                 }
             }
         } catch (SQLException e) {
             System.out.println(e);
+            if (SqlConstraints.isUniqueViolation(e)) {
+                throw new PlanetFail("Planet name must be unique");
+            }
             throw new PlanetFail(e.getMessage());
         }
         return Optional.empty();
     }
 
+    /*
+     * Inserts every planet with one batched statement inside a single transaction, so either all of
+     * them are created or none are. sqlite-jdbc only reports the last generated key of a batch; since
+     * the transaction holds the write lock, rowids are handed out consecutively and the earlier ids
+     * are counted back from last_insert_rowid().
+     */
+    @Override
+    public List<Planet> createPlanets(List<Planet> planets) {
+        if (planets.isEmpty()) {
+            return planets;
+        }
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            List<String> imageHashes = new ArrayList<>();
+            for (Planet planet : planets) {
+                imageHashes.add(ImageDaoImp.storeImage(conn, planet.imageDataAsByteArray()));
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO planets (name, ownerId, imageHash) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < planets.size(); i++) {
+                    stmt.setString(1, planets.get(i).getPlanetName());
+                    stmt.setInt(2, planets.get(i).getOwnerId());
+                    stmt.setString(3, imageHashes.get(i));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                int id = rs.next() ? rs.getInt(1) - planets.size() : 0;
+                for (Planet planet : planets) {
+                    planet.setPlanetId(++id);
+                }
+            }
+            conn.commit();
+            for (Planet planet : planets) {
+                Thumbnailer.schedule(Thumbnailer.Kind.PLANET, planet.getPlanetId(), planet.imageDataAsByteArray());
+            }
+            return planets;
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+    }
+
+    @Override
+    public Set<String> readExistingPlanetNames(Collection<String> names) {
+        Set<String> existing = new HashSet<>();
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            for (List<String> chunk : SqlLists.chunks(names, SqlLists.CHUNK_SIZE)) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT name FROM planets WHERE name IN (" + SqlLists.placeholders(chunk.size()) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getString("name"));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return existing;
+    }
+
+    @Override
+    public Set<Integer> readExistingOwnerIds(Collection<Integer> ownerIds) {
+        Set<Integer> existing = new HashSet<>();
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            for (List<Integer> chunk : SqlLists.chunks(ownerIds, SqlLists.CHUNK_SIZE)) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM users WHERE id IN (" + SqlLists.placeholders(chunk.size()) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getInt("id"));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return existing;
+    }
+
 
     @Override
     public Optional<Planet> readPlanet(int id) {
@@ -86,15 +204,15 @@ public class PlanetDaoImp implements PlanetDao {
     public List<Planet> readAllPlanets() {
         List<Planet> planets = new ArrayList<>();
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM planets");
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, ownerId, imageHash, image FROM " + WITH_IMAGES);
              ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     Planet planet = new Planet();
                     planet.setPlanetId(rs.getInt("id"));
                     planet.setPlanetName(rs.getString("name"));
                     planet.setOwnerId(rs.getInt("ownerId"));
-                    if(rs.getBytes("image") != null){
-                        byte[] imageDataAsBytes = rs.getBytes("image");
+                    byte[] imageDataAsBytes = ImageFiles.imageBytes(rs);
+                    if(imageDataAsBytes != null){
                         String imageDataBase64 = Base64.getEncoder().encodeToString(imageDataAsBytes);
                         planet.setImageData(imageDataBase64);
                     }
@@ -108,19 +226,36 @@ public class PlanetDaoImp implements PlanetDao {
     }
 
     @Override
-    public List<Planet> readPlanetsByOwner(int ownerId) {
+    public List<Planet> readAllPlanetSummaries() {
         List<Planet> planets = new ArrayList<>();
-        try (Connection conn = DatabaseConnector.getConnection(); 
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM planets WHERE ownerId = ?")) {
-            stmt.setInt(1, ownerId);
-            try (ResultSet rs = stmt.executeQuery()) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, ownerId, imageHash FROM planets");
+             ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     Planet planet = new Planet();
                     planet.setPlanetId(rs.getInt("id"));
                     planet.setPlanetName(rs.getString("name"));
                     planet.setOwnerId(rs.getInt("ownerId"));
+                    planet.setImageUrl(ImageDaoImp.urlFor(rs.getString("imageHash")));
                     planets.add(planet);
                 }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return planets;
+    }
+
+    @Override
+    public List<Planet> readPlanetsByOwner(int ownerId) {
+        List<Planet> planets = new ArrayList<>();
+        try (Connection conn = DatabaseConnector.getConnection(); 
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, ownerId, imageHash, image FROM " + WITH_IMAGES + " WHERE ownerId = ?")) {
+            stmt.setInt(1, ownerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    planets.add(mapPlanet(rs, true));
+                }
             }
         } catch (SQLException e) {
             System.out.println(e);
@@ -130,31 +265,183 @@ public class PlanetDaoImp implements PlanetDao {
     }
 
     @Override
-    public Optional<Planet> updatePlanet(Planet planet) {
+    public List<Planet> readPlanetSummariesByOwner(int ownerId) {
+        List<Planet> planets = new ArrayList<>();
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("UPDATE planets SET name = ?, ownerId = ? WHERE id = ?")) {
-            stmt.setString(1, planet.getPlanetName());
-            stmt.setInt(2, planet.getOwnerId());
-            stmt.setInt(3, planet.getPlanetId());
-            int rowsUpdated = stmt.executeUpdate();
-            return rowsUpdated > 0 ? Optional.of(planet) : Optional.empty();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, ownerId, imageHash FROM planets WHERE ownerId = ?")) {
+            stmt.setInt(1, ownerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    planets.add(mapPlanet(rs, false));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return planets;
+    }
+
+    @Override
+    public List<Planet> readPlanetPage(int afterId, int limit, boolean includeImages) {
+        List<Planet> planets = new ArrayList<>();
+        String query = includeImages ? "SELECT id, name, ownerId, imageHash, image FROM " + WITH_IMAGES : "SELECT id, name, ownerId, imageHash FROM planets";
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query + " WHERE id > ? ORDER BY id LIMIT ?")) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    planets.add(mapPlanet(rs, includeImages));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return planets;
+    }
+
+    @Override
+    public List<Planet> readPlanetPageByOwner(int ownerId, int afterId, int limit, boolean includeImages) {
+        List<Planet> planets = new ArrayList<>();
+        String query = includeImages ? "SELECT id, name, ownerId, imageHash, image FROM " + WITH_IMAGES : "SELECT id, name, ownerId, imageHash FROM planets";
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query + " WHERE ownerId = ? AND id > ? ORDER BY id LIMIT ?")) {
+            stmt.setInt(1, ownerId);
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    planets.add(mapPlanet(rs, includeImages));
+                }
+            }
         } catch (SQLException e) {
             System.out.println(e);
             throw new PlanetFail(e.getMessage());
         }
+        return planets;
     }
 
+    /*
+     * One page of planets joined with their moons in a single query. The page of planets is chosen
+     * in a subquery so the LIMIT counts planets rather than joined rows; the outer query then returns
+     * one row per moon (or one row with null moon columns for a planet without moons), ordered so
+     * rows of the same planet are adjacent. Only image hashes are read, never image bytes.
+     */
+    @Override
+    public List<CatalogPlanet> readCatalogPage(Integer ownerId, int afterId, int limit) {
+        List<CatalogPlanet> planets = new ArrayList<>();
+        String sql = "SELECT p.id, p.name, p.ownerId, p.imageHash, m.id AS moonId, m.name AS moonName, m.imageHash AS moonImageHash"
+                + " FROM (SELECT id, name, ownerId, imageHash FROM planets WHERE id > ?"
+                + (ownerId != null ? " AND ownerId = ?" : "") + " ORDER BY id LIMIT ?) p"
+                + " LEFT JOIN moons m ON m.myPlanetId = p.id ORDER BY p.id, m.id";
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setInt(index++, afterId);
+            if (ownerId != null) {
+                stmt.setInt(index++, ownerId);
+            }
+            stmt.setInt(index, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                CatalogPlanet planet = null;
+                while (rs.next()) {
+                    int planetId = rs.getInt("id");
+                    if (planet == null || planet.getPlanetId() != planetId) {
+                        planet = new CatalogPlanet();
+                        planet.setPlanetId(planetId);
+                        planet.setPlanetName(rs.getString("name"));
+                        planet.setOwnerId(rs.getInt("ownerId"));
+                        planet.setImageUrl(ImageDaoImp.urlFor(rs.getString("imageHash")));
+                        planets.add(planet);
+                    }
+                    int moonId = rs.getInt("moonId");
+                    if (!rs.wasNull()) {
+                        Moon moon = new Moon(moonId, rs.getString("moonName"), planetId);
+                        moon.setImageUrl(ImageDaoImp.urlFor(rs.getString("moonImageHash")));
+                        planet.getMoons().add(moon);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return planets;
+    }
 
+    private Planet mapPlanet(ResultSet rs, boolean includeImages) throws SQLException {
+        Planet planet = new Planet();
+        planet.setPlanetId(rs.getInt("id"));
+        planet.setPlanetName(rs.getString("name"));
+        planet.setOwnerId(rs.getInt("ownerId"));
+        if (includeImages) {
+            planet.setImageBytes(ImageFiles.imageBytes(rs));
+        } else {
+            planet.setImageUrl(ImageDaoImp.urlFor(rs.getString("imageHash")));
+        }
+        return planet;
+    }
 
+    @Override
+    public Optional<byte[]> readPlanetImage(int id) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT imageHash, image FROM " + WITH_IMAGES + " WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(ImageFiles.imageBytes(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return Optional.empty();
+    }
 
+    @Override
+    public Optional<String> readPlanetImageHash(int id) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT imageHash FROM planets WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getString("imageHash"));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return Optional.empty();
+    }
 
     @Override
-    public boolean deletePlanet(int id) {
+    public Optional<byte[]> readPlanetThumbnail(int id, int size) {
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("DELETE FROM planets WHERE id = ?")) {
+             PreparedStatement stmt = conn.prepareStatement("SELECT image FROM planet_thumbnails WHERE planetId = ? AND size = ?")) {
             stmt.setInt(1, id);
-            int rowsDeleted = stmt.executeUpdate();
-            return rowsDeleted > 0;
+            stmt.setInt(2, size);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getBytes("image"));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public long readDataVersion() {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT version FROM data_versions WHERE name = 'planets'");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong("version") : 0;
         } catch (SQLException e) {
             System.out.println(e);
             throw new PlanetFail(e.getMessage());
@@ -162,16 +449,81 @@ public class PlanetDaoImp implements PlanetDao {
     }
 
     @Override
-    public boolean deletePlanet(String name) {
+    public Optional<Planet> updatePlanet(Planet planet) {
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("DELETE FROM planets WHERE name = ?")) {
-            stmt.setString(1, name);
-            int rowsDeleted = stmt.executeUpdate();
-            return rowsDeleted > 0;
+             PreparedStatement stmt = conn.prepareStatement("UPDATE planets SET name = ?, ownerId = ? WHERE id = ?")) {
+            stmt.setString(1, planet.getPlanetName());
+            stmt.setInt(2, planet.getOwnerId());
+            stmt.setInt(3, planet.getPlanetId());
+            int rowsUpdated = stmt.executeUpdate();
+            return rowsUpdated > 0 ? Optional.of(planet) : Optional.empty();
         } catch (SQLException e) {
             System.out.println(e);
+            if (SqlConstraints.isUniqueViolation(e)) {
+                throw new PlanetFail("Planet name must be unique, could not update");
+            }
             throw new PlanetFail(e.getMessage());
         }
     }
-    
+
+
+
+
+
+    @Override
+    public Optional<Deletion> deletePlanet(int id) {
+        return deletePlanetWhere("id", id);
+    }
+
+    @Override
+    public Optional<Deletion> deletePlanet(String name) {
+        return deletePlanetWhere("name", name);
+    }
+
+    /*
+     * Deletes the planet and its moons in one transaction and returns the planet's id with the image
+     * hashes of the planet and its moons. The moons are deleted explicitly rather than left to ON
+     * DELETE CASCADE, whose rows RETURNING cannot report, and first, so the transaction starts with a
+     * write and holds the write lock from its first statement.
+     */
+    private Optional<Deletion> deletePlanetWhere(String column, Object key) {
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            List<String> imageHashes = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM moons WHERE myPlanetId IN "
+                    + "(SELECT id FROM planets WHERE " + column + " = ?) RETURNING imageHash")) {
+                stmt.setObject(1, key);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        addImageHash(imageHashes, rs);
+                    }
+                }
+            }
+            Optional<Deletion> deleted = Optional.empty();
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM planets WHERE " + column + " = ? RETURNING id, imageHash")) {
+                stmt.setObject(1, key);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        addImageHash(imageHashes, rs);
+                        deleted = Optional.of(new Deletion(rs.getInt("id"), imageHashes));
+                    }
+                }
+            }
+            List<String> unreferenced = deleted.isPresent() ? ImageFiles.deleteUnreferenced(conn) : List.of();
+            conn.commit();
+            ImageFiles.deleteFiles(conn, unreferenced);
+            return deleted;
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new PlanetFail(e.getMessage());
+        }
+    }
+
+    private static void addImageHash(List<String> imageHashes, ResultSet rs) throws SQLException {
+        String imageHash = rs.getString("imageHash");
+        if (imageHash != null && !imageHashes.contains(imageHash)) {
+            imageHashes.add(imageHash);
+        }
+    }
+
 }
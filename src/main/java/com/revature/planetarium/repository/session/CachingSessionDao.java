@@ -0,0 +1,123 @@
+package com.revature.planetarium.repository.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.revature.planetarium.entities.Session;
+
+/*
+ * Small per-process cache in front of a shared SessionDao, so authenticating a request does not
+ * query the store every time. An entry is trusted for at most ttlMillis: a logout on another node
+ * takes effect here once the entry ages out, while logouts on this node take effect immediately.
+ * Only sessions that exist are cached, so requests with unknown ids cannot fill the cache.
+ */
+public class CachingSessionDao implements SessionDao {
+
+    private final SessionDao sessionDao;
+    private final long ttlMillis;
+    private final Map<String, Cached> cache;
+
+    public CachingSessionDao(SessionDao sessionDao, int maxEntries, long ttlMillis) {
+        this.sessionDao = sessionDao;
+        this.ttlMillis = ttlMillis;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public void createSession(Session session) {
+        sessionDao.createSession(session);
+        put(session);
+    }
+
+    @Override
+    public Optional<Session> readSession(String sessionId) {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            Cached cached = cache.get(sessionId);
+            if (cached != null && now - cached.cachedAt < ttlMillis) {
+                return Optional.of(new Session(sessionId, cached.username, cached.expiresAt));
+            }
+        }
+        Optional<Session> session = sessionDao.readSession(sessionId);
+        if (session.isPresent()) {
+            put(session.get());
+        } else {
+            invalidate(sessionId);
+        }
+        return session;
+    }
+
+    @Override
+    public boolean extendSession(String sessionId, long expiresAt) {
+        boolean extended = sessionDao.extendSession(sessionId, expiresAt);
+        synchronized (cache) {
+            Cached cached = cache.get(sessionId);
+            if (cached != null) {
+                cached.expiresAt = Math.max(cached.expiresAt, expiresAt);
+            }
+        }
+        return extended;
+    }
+
+    @Override
+    public boolean deleteSession(String sessionId) {
+        invalidate(sessionId);
+        return sessionDao.deleteSession(sessionId);
+    }
+
+    @Override
+    public int deleteExpiredSessions(long now) {
+        synchronized (cache) {
+            cache.values().removeIf(cached -> now >= cached.expiresAt);
+        }
+        return sessionDao.deleteExpiredSessions(now);
+    }
+
+    @Override
+    public int trimSessions(int maxSessions) {
+        int trimmed = sessionDao.trimSessions(maxSessions);
+        if (trimmed > 0) {
+            // which sessions went is only known to the store, so start over
+            synchronized (cache) {
+                cache.clear();
+            }
+        }
+        return trimmed;
+    }
+
+    @Override
+    public int countSessions() {
+        return sessionDao.countSessions();
+    }
+
+    private void put(Session session) {
+        synchronized (cache) {
+            cache.put(session.getSessionId(), new Cached(session.getUsername(), session.getExpiresAt(), System.currentTimeMillis()));
+        }
+    }
+
+    private void invalidate(String sessionId) {
+        synchronized (cache) {
+            cache.remove(sessionId);
+        }
+    }
+
+    private static class Cached {
+        final String username;
+        final long cachedAt;
+        long expiresAt;
+
+        Cached(String username, long expiresAt, long cachedAt) {
+            this.username = username;
+            this.expiresAt = expiresAt;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+}
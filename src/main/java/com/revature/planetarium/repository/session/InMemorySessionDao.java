@@ -0,0 +1,88 @@
+package com.revature.planetarium.repository.session;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.revature.planetarium.entities.Session;
+
+/*
+ * Sessions held in this process only, the default when a single node serves all traffic. Entries are
+ * kept in access order and the least recently used session is dropped as soon as a new one would
+ * exceed maxSessions, so the map never grows past its bound between sweeps.
+ */
+public class InMemorySessionDao implements SessionDao {
+
+    private final Map<String, Session> sessions;
+
+    public InMemorySessionDao(int maxSessions) {
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void createSession(Session session) {
+        sessions.put(session.getSessionId(), copy(session));
+    }
+
+    @Override
+    public synchronized Optional<Session> readSession(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session == null ? Optional.empty() : Optional.of(copy(session));
+    }
+
+    @Override
+    public synchronized boolean extendSession(String sessionId, long expiresAt) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.setExpiresAt(expiresAt);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean deleteSession(String sessionId) {
+        return sessions.remove(sessionId) != null;
+    }
+
+    @Override
+    public synchronized int deleteExpiredSessions(long now) {
+        int deleted = 0;
+        Iterator<Session> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().isExpired(now)) {
+                it.remove();
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized int trimSessions(int maxSessions) {
+        int excess = sessions.size() - maxSessions;
+        Iterator<Session> it = sessions.values().iterator();
+        for (int i = 0; i < excess; i++) {
+            it.next();
+            it.remove();
+        }
+        return Math.max(0, excess);
+    }
+
+    @Override
+    public synchronized int countSessions() {
+        return sessions.size();
+    }
+
+    // callers get copies so nothing outside the lock can change a stored session
+    private static Session copy(Session session) {
+        return new Session(session.getSessionId(), session.getUsername(), session.getExpiresAt());
+    }
+
+}
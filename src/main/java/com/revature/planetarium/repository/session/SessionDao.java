@@ -0,0 +1,17 @@
+package com.revature.planetarium.repository.session;
+
+import java.util.Optional;
+
+import com.revature.planetarium.entities.Session;
+
+public interface SessionDao {
+
+    void createSession(Session session);
+    Optional<Session> readSession(String sessionId);
+    boolean extendSession(String sessionId, long expiresAt);
+    boolean deleteSession(String sessionId);
+    int deleteExpiredSessions(long now);
+    int trimSessions(int maxSessions);
+    int countSessions();
+
+}
@@ -0,0 +1,123 @@
+package com.revature.planetarium.repository.session;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import com.revature.planetarium.entities.Session;
+import com.revature.planetarium.exceptions.UserFail;
+import com.revature.planetarium.utility.DatabaseConnector;
+import com.revature.planetarium.utility.Hashing;
+
+/*
+ * Sessions in the sessions table of the Planetarium database (migration V3), so every process
+ * using the same database file sees the same logins and sessions survive restarts. Rows are keyed by
+ * the SHA-256 of the session id (migration V7), so a copy of the database cannot be used to log in.
+ */
+public class SessionDaoImp implements SessionDao {
+
+    @Override
+    public void createSession(Session session) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO sessions (id, username, expiresAt) VALUES (?, ?, ?)")) {
+            stmt.setString(1, key(session.getSessionId()));
+            stmt.setString(2, session.getUsername());
+            stmt.setLong(3, session.getExpiresAt());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new UserFail(e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<Session> readSession(String sessionId) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT username, expiresAt FROM sessions WHERE id = ?")) {
+            stmt.setString(1, key(sessionId));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(new Session(sessionId, rs.getString("username"), rs.getLong("expiresAt")));
+                }
+            }
+            return Optional.empty();
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new UserFail(e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean extendSession(String sessionId, long expiresAt) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE sessions SET expiresAt = ? WHERE id = ? AND expiresAt < ?")) {
+            stmt.setLong(1, expiresAt);
+            stmt.setString(2, key(sessionId));
+            stmt.setLong(3, expiresAt);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new UserFail(e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean deleteSession(String sessionId) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM sessions WHERE id = ?")) {
+            stmt.setString(1, key(sessionId));
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new UserFail(e.getMessage());
+        }
+    }
+
+    @Override
+    public int deleteExpiredSessions(long now) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM sessions WHERE expiresAt <= ?")) {
+            stmt.setLong(1, now);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new UserFail(e.getMessage());
+        }
+    }
+
+    /*
+     * Drops the sessions closest to expiry, which for sliding expiration are the least recently used.
+     */
+    @Override
+    public int trimSessions(int maxSessions) {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM sessions WHERE id IN "
+                     + "(SELECT id FROM sessions ORDER BY expiresAt LIMIT max(0, (SELECT count(*) FROM sessions) - ?))")) {
+            stmt.setInt(1, maxSessions);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new UserFail(e.getMessage());
+        }
+    }
+
+    @Override
+    public int countSessions() {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT count(*) FROM sessions");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.out.println(e);
+            throw new UserFail(e.getMessage());
+        }
+    }
+
+    private static String key(String sessionId) {
+        return Hashing.sha256Hex(sessionId.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.revature.planetarium.service.image;
+
+import com.revature.planetarium.entities.StoredImage;
+
+public interface ImageService {
+
+    StoredImage selectImage(String hash);
+    byte[] selectImageRange(String hash, long offset, int length);
+
+}
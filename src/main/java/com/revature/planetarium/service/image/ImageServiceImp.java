@@ -0,0 +1,37 @@
+package com.revature.planetarium.service.image;
+
+import java.util.Optional;
+
+import com.revature.planetarium.entities.StoredImage;
+import com.revature.planetarium.exceptions.ImageFail;
+import com.revature.planetarium.repository.image.ImageDao;
+
+public class ImageServiceImp implements ImageService {
+
+    private ImageDao imageDao;
+
+    public ImageServiceImp(ImageDao imageDao) {
+        this.imageDao = imageDao;
+    }
+
+    @Override
+    public StoredImage selectImage(String hash) {
+        Optional<StoredImage> image = imageDao.readImage(hash);
+        if (image.isPresent()) {
+            return image.get();
+        } else {
+            throw new ImageFail("Image not found");
+        }
+    }
+
+    @Override
+    public byte[] selectImageRange(String hash, long offset, int length) {
+        Optional<byte[]> range = imageDao.readImageRange(hash, offset, length);
+        if (range.isPresent()) {
+            return range.get();
+        } else {
+            throw new ImageFail("Image not found");
+        }
+    }
+
+}
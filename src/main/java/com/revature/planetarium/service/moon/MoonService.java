@@ -1,15 +1,27 @@
 package com.revature.planetarium.service.moon;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.revature.planetarium.entities.BulkProgress;
 import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.entities.Page;
 
 public interface MoonService<T> {
     
     Moon createMoon(Moon moon);
+    void importMoons(List<Moon> moons, Consumer<BulkProgress> progress);
     Moon selectMoon(T idOrName);
     List<Moon> selectAllMoons();
+    List<Moon> selectAllMoonSummaries();
     List<Moon> selectByPlanet(int planetId);
+    List<Moon> selectSummariesByPlanet(int planetId);
+    Page<Moon> selectMoonPage(int afterId, int limit, boolean includeImages);
+    Page<Moon> selectPageByPlanet(int planetId, int afterId, int limit, boolean includeImages);
+    byte[] selectMoonImage(int id);
+    String selectMoonImageHash(int id);
+    byte[] selectMoonThumbnail(int id, int size);
+    long selectDataVersion();
     Moon updateMoon(Moon moon);
     String deleteMoon(T idOrName);
 
@@ -1,11 +1,20 @@
 package com.revature.planetarium.service.moon;
 
+import com.revature.planetarium.entities.BulkProgress;
+import com.revature.planetarium.entities.BulkResult;
 import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.entities.Page;
 import com.revature.planetarium.exceptions.MoonFail;
 import com.revature.planetarium.repository.moon.MoonDao;
+import com.revature.planetarium.utility.BulkRequests;
+import com.revature.planetarium.utility.Paging;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class MoonServiceImp<T> implements MoonService<T> {
     
@@ -20,10 +29,7 @@ public class MoonServiceImp<T> implements MoonService<T> {
         if (moon.getMoonName().length() < 1 || moon.getMoonName().length() > 30) {
             throw new MoonFail("Moon name must be between 1 and 30 characters");
         }
-        Optional<Moon> existingMoon = moonDao.readMoon(moon.getMoonName());
-        if (existingMoon.isPresent()) {
-            throw new MoonFail("Moon name must be unique");
-        }
+        // uniqueness is enforced by the insert itself, see MoonDaoImp.createMoon
         Optional<Moon> newMoon = moonDao.createMoon(moon);
         if (newMoon.isEmpty()) {
             throw new MoonFail("Could not create new moon");
@@ -31,6 +37,83 @@ public class MoonServiceImp<T> implements MoonService<T> {
         return newMoon.get();
     }
 
+    /*
+     * Imports a large batch of moons. Names and parent planets are resolved up front with set-based
+     * queries, then the accepted moons are inserted in chunks of BulkRequests.CHUNK_SIZE, each chunk in
+     * its own transaction. progress is called after every chunk with that chunk's results, so a
+     * failure partway through leaves the earlier chunks committed and reported.
+     */
+    @Override
+    public void importMoons(List<Moon> moons, Consumer<BulkProgress> progress) {
+        BulkResult[] rejections = new BulkResult[moons.size()];
+        Set<String> batchNames = new HashSet<>();
+        Set<Integer> planetIds = new HashSet<>();
+        for (int i = 0; i < moons.size(); i++) {
+            Moon moon = moons.get(i);
+            String name = moon == null ? null : moon.getMoonName();
+            if (moon == null) {
+                rejections[i] = BulkResult.rejected(i, null, "Item must be a moon object");
+            } else if (name == null || name.length() < 1 || name.length() > 30) {
+                rejections[i] = BulkResult.rejected(i, name, "Moon name must be between 1 and 30 characters");
+            } else if (!batchNames.add(name)) {
+                rejections[i] = BulkResult.rejected(i, name, "Moon name must be unique");
+            } else {
+                planetIds.add(moon.getOwnerId());
+            }
+        }
+        Set<String> existingNames = moonDao.readExistingMoonNames(batchNames);
+        Set<Integer> existingPlanets = moonDao.readExistingPlanetIds(planetIds);
+        for (int i = 0; i < moons.size(); i++) {
+            Moon moon = moons.get(i);
+            if (rejections[i] != null) {
+                continue;
+            }
+            if (existingNames.contains(moon.getMoonName())) {
+                rejections[i] = BulkResult.rejected(i, moon.getMoonName(), "Moon name must be unique");
+            } else if (!existingPlanets.contains(moon.getOwnerId())) {
+                rejections[i] = BulkResult.rejected(i, moon.getMoonName(), "Planet not found");
+            }
+        }
+
+        int created = 0;
+        int rejected = 0;
+        for (int start = 0; start < moons.size(); start += BulkRequests.CHUNK_SIZE) {
+            int end = Math.min(start + BulkRequests.CHUNK_SIZE, moons.size());
+            BulkResult[] results = new BulkResult[end - start];
+            List<Moon> accepted = new ArrayList<>();
+            List<Integer> acceptedIndexes = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                if (rejections[i] != null) {
+                    results[i - start] = rejections[i];
+                } else {
+                    accepted.add(moons.get(i));
+                    acceptedIndexes.add(i);
+                }
+            }
+            try {
+                List<Moon> createdMoons = moonDao.createMoons(accepted);
+                for (int j = 0; j < createdMoons.size(); j++) {
+                    int i = acceptedIndexes.get(j);
+                    results[i - start] = BulkResult.created(i, createdMoons.get(j).getMoonName(), createdMoons.get(j).getMoonId());
+                }
+            } catch (MoonFail e) {
+                for (int i : acceptedIndexes) {
+                    results[i - start] = BulkResult.rejected(i, moons.get(i).getMoonName(), "Could not create new moon");
+                }
+            }
+            for (BulkResult result : results) {
+                if (BulkResult.CREATED.equals(result.getStatus())) {
+                    created++;
+                } else {
+                    rejected++;
+                }
+            }
+            progress.accept(new BulkProgress(end, moons.size(), created, rejected, end == moons.size(), List.of(results)));
+        }
+        if (moons.isEmpty()) {
+            progress.accept(new BulkProgress(0, 0, 0, 0, true, List.of()));
+        }
+    }
 
     @Override
     public Moon selectMoon(T idOrName) {
@@ -54,29 +137,101 @@ public class MoonServiceImp<T> implements MoonService<T> {
         return moonDao.readAllMoons();
     }
 
+    @Override
+    public List<Moon> selectAllMoonSummaries() {
+        return moonDao.readAllMoonSummaries();
+    }
+
     @Override
     public List<Moon> selectByPlanet(int planetId) {
         return moonDao.readMoonsByPlanet(planetId);
     }
 
     @Override
-    public Moon updateMoon(Moon moon) {
-        Optional<Moon> existingMoon = moonDao.readMoon(moon.getMoonId());
-        if (existingMoon.isEmpty()) {
-            throw new MoonFail("Moon not found, could not update");
+    public List<Moon> selectSummariesByPlanet(int planetId) {
+        return moonDao.readMoonSummariesByPlanet(planetId);
+    }
+
+    @Override
+    public Page<Moon> selectMoonPage(int afterId, int limit, boolean includeImages) {
+        int pageSize = pageSize(limit);
+        List<Moon> moons = moonDao.readMoonPage(afterId, pageSize + 1, includeImages);
+        return toPage(moons, pageSize);
+    }
+
+    @Override
+    public Page<Moon> selectPageByPlanet(int planetId, int afterId, int limit, boolean includeImages) {
+        int pageSize = pageSize(limit);
+        List<Moon> moons = moonDao.readMoonPageByPlanet(planetId, afterId, pageSize + 1, includeImages);
+        return toPage(moons, pageSize);
+    }
+
+    private int pageSize(int limit) {
+        if (limit < 1) {
+            throw new MoonFail("Page limit must be at least 1");
+        }
+        return Math.min(limit, Paging.MAX_PAGE_SIZE);
+    }
+
+    private Page<Moon> toPage(List<Moon> moons, int pageSize) {
+        // one extra row was requested so we know whether another page follows
+        if (moons.size() > pageSize) {
+            moons = moons.subList(0, pageSize);
+            String nextCursor = String.valueOf(moons.get(pageSize - 1).getMoonId());
+            return new Page<>(moons, nextCursor, pageSize);
         }
+        return new Page<>(moons, null, pageSize);
+    }
+
+    @Override
+    public byte[] selectMoonImage(int id) {
+        Optional<byte[]> image = moonDao.readMoonImage(id);
+        if (image.isPresent()) {
+            return image.get();
+        } else {
+            throw new MoonFail("Moon image not found");
+        }
+    }
+
+    @Override
+    public String selectMoonImageHash(int id) {
+        Optional<String> hash = moonDao.readMoonImageHash(id);
+        if (hash.isPresent()) {
+            return hash.get();
+        } else {
+            throw new MoonFail("Moon image not found");
+        }
+    }
+
+    /*
+     * Falls back to the full image while the thumbnail has not been generated yet, or when the
+     * image could not be decoded.
+     */
+    @Override
+    public byte[] selectMoonThumbnail(int id, int size) {
+        Optional<byte[]> thumbnail = moonDao.readMoonThumbnail(id, size);
+        if (thumbnail.isPresent()) {
+            return thumbnail.get();
+        }
+        return selectMoonImage(id);
+    }
+
+    @Override
+    public long selectDataVersion() {
+        return moonDao.readDataVersion();
+    }
+
+    @Override
+    public Moon updateMoon(Moon moon) {
         if (moon.getMoonName().length() < 1 || moon.getMoonName().length() > 30) {
             throw new MoonFail("Moon name must be between 1 and 30 characters, could not update");
         }
-        Optional<Moon> moonWithSameName = moonDao.readMoon(moon.getMoonName());
-        if (moonWithSameName.isPresent() && moonWithSameName.get().getMoonId() != moon.getMoonId()) {
-            throw new MoonFail("Moon name must be unique, could not update");
-        }
+        // a single UPDATE: no changed row means no such moon, a name clash fails the unique index
         Optional<Moon> updatedMoon = moonDao.updateMoon(moon);
         if (updatedMoon.isPresent()) {
             return updatedMoon.get();
         } else {
-            throw new MoonFail("Moon update failed, please try again");
+            throw new MoonFail("Moon not found, could not update");
         }
     }
 
@@ -84,9 +239,9 @@ public class MoonServiceImp<T> implements MoonService<T> {
     public String deleteMoon(T idOrName) {
         boolean deleted;
         if (idOrName instanceof Integer) {
-            deleted = moonDao.deleteMoon((int) idOrName);
+            deleted = moonDao.deleteMoon((int) idOrName).isPresent();
         } else if (idOrName instanceof String) {
-            deleted = moonDao.deleteMoon((String) idOrName);
+            deleted = moonDao.deleteMoon((String) idOrName).isPresent();
         } else {
             throw new MoonFail("Identifier must be an Integer or String");
         }
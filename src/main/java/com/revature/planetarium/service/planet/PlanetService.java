@@ -1,5 +1,8 @@
 package com.revature.planetarium.service.planet;
 
+import com.revature.planetarium.entities.BulkReport;
+import com.revature.planetarium.entities.CatalogPlanet;
+import com.revature.planetarium.entities.Page;
 import com.revature.planetarium.entities.Planet;
 
 import java.util.List;
@@ -7,9 +10,19 @@ import java.util.List;
 public interface PlanetService<T> {
 
     Planet createPlanet(Planet planet);
+    BulkReport createPlanets(List<Planet> planets);
     Planet selectPlanet(T idOrName);
     List<Planet> selectAllPlanets();
+    List<Planet> selectAllPlanetSummaries();
     List<Planet> selectByOwner(int ownerId);
+    List<Planet> selectSummariesByOwner(int ownerId);
+    Page<Planet> selectPlanetPage(int afterId, int limit, boolean includeImages);
+    Page<Planet> selectPageByOwner(int ownerId, int afterId, int limit, boolean includeImages);
+    Page<CatalogPlanet> selectCatalogPage(Integer ownerId, int afterId, int limit);
+    byte[] selectPlanetImage(int id);
+    String selectPlanetImageHash(int id);
+    byte[] selectPlanetThumbnail(int id, int size);
+    long selectDataVersion();
     Planet updatePlanet(Planet planet);
     String deletePlanet(T idOrName);
     
@@ -1,11 +1,20 @@
 package com.revature.planetarium.service.planet;
 
+import com.revature.planetarium.entities.BulkReport;
+import com.revature.planetarium.entities.BulkResult;
+import com.revature.planetarium.entities.CatalogPlanet;
+import com.revature.planetarium.entities.Page;
 import com.revature.planetarium.entities.Planet;
 import com.revature.planetarium.exceptions.PlanetFail;
 import com.revature.planetarium.repository.planet.PlanetDao;
+import com.revature.planetarium.utility.Paging;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class PlanetServiceImp<T> implements PlanetService<T> {
 
@@ -20,10 +29,7 @@ public class PlanetServiceImp<T> implements PlanetService<T> {
         if (planet.getPlanetName().length() < 1 || planet.getPlanetName().length() > 30) {
             throw new PlanetFail("Planet name must be between 1 and 30 characters");
         }
-        Optional<Planet> existingPlanet = planetDao.readPlanet(planet.getPlanetName());
-        if (existingPlanet.isPresent()) {
-            throw new PlanetFail("Planet name must be unique");
-        }
+        // uniqueness is enforced by the insert itself, see PlanetDaoImp.createPlanet
         Optional<Planet> createdPlanet = planetDao.createPlanet(planet);
         if (createdPlanet.isPresent()) {
             return createdPlanet.get();
@@ -32,6 +38,61 @@ public class PlanetServiceImp<T> implements PlanetService<T> {
         }
     }
 
+    /*
+     * Applies the createPlanet rules to a whole batch: names are validated in one pass, uniqueness
+     * against the database and the owners are checked with set-based queries, and the accepted
+     * planets are inserted together in one transaction. Each input position gets its own result; the
+     * checks up front keep one bad item from failing that transaction for all the others.
+     */
+    @Override
+    public BulkReport createPlanets(List<Planet> planets) {
+        BulkResult[] results = new BulkResult[planets.size()];
+        Set<String> batchNames = new HashSet<>();
+        Set<Integer> ownerIds = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < planets.size(); i++) {
+            Planet planet = planets.get(i);
+            String name = planet == null ? null : planet.getPlanetName();
+            if (planet == null) {
+                results[i] = BulkResult.rejected(i, null, "Item must be a planet object");
+            } else if (name == null || name.length() < 1 || name.length() > 30) {
+                results[i] = BulkResult.rejected(i, name, "Planet name must be between 1 and 30 characters");
+            } else if (!batchNames.add(name)) {
+                results[i] = BulkResult.rejected(i, name, "Planet name must be unique");
+            } else {
+                candidates.add(i);
+                ownerIds.add(planet.getOwnerId());
+            }
+        }
+        Set<String> existingNames = planetDao.readExistingPlanetNames(batchNames);
+        Set<Integer> existingOwners = planetDao.readExistingOwnerIds(ownerIds);
+        List<Planet> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i : candidates) {
+            Planet planet = planets.get(i);
+            if (existingNames.contains(planet.getPlanetName())) {
+                results[i] = BulkResult.rejected(i, planet.getPlanetName(), "Planet name must be unique");
+            } else if (!existingOwners.contains(planet.getOwnerId())) {
+                results[i] = BulkResult.rejected(i, planet.getPlanetName(), "Owner not found");
+            } else {
+                accepted.add(planet);
+                acceptedIndexes.add(i);
+            }
+        }
+        try {
+            List<Planet> created = planetDao.createPlanets(accepted);
+            for (int j = 0; j < created.size(); j++) {
+                Planet planet = created.get(j);
+                results[acceptedIndexes.get(j)] = BulkResult.created(acceptedIndexes.get(j), planet.getPlanetName(), planet.getPlanetId());
+            }
+        } catch (PlanetFail e) {
+            for (int i : acceptedIndexes) {
+                results[i] = BulkResult.rejected(i, planets.get(i).getPlanetName(), "Planet creation failed, please try again");
+            }
+        }
+        return new BulkReport(Arrays.asList(results));
+    }
+
     @Override
     public Planet selectPlanet(T idOrName) {
         Optional<Planet> planet;
@@ -54,30 +115,108 @@ public class PlanetServiceImp<T> implements PlanetService<T> {
         return planetDao.readAllPlanets();
     }
 
+    @Override
+    public List<Planet> selectAllPlanetSummaries() {
+        return planetDao.readAllPlanetSummaries();
+    }
+
     @Override
     public List<Planet> selectByOwner(int ownerId) {
         return planetDao.readPlanetsByOwner(ownerId);
     }
 
     @Override
-    public Planet updatePlanet(Planet planet) {
-        Optional<Planet> existingPlanet = planetDao.readPlanet(planet.getPlanetId());
-        if (existingPlanet.isEmpty()) {
-            throw new PlanetFail("Planet not found, could not update");
+    public List<Planet> selectSummariesByOwner(int ownerId) {
+        return planetDao.readPlanetSummariesByOwner(ownerId);
+    }
+
+    @Override
+    public Page<Planet> selectPlanetPage(int afterId, int limit, boolean includeImages) {
+        int pageSize = pageSize(limit);
+        List<Planet> planets = planetDao.readPlanetPage(afterId, pageSize + 1, includeImages);
+        return toPage(planets, pageSize);
+    }
+
+    @Override
+    public Page<Planet> selectPageByOwner(int ownerId, int afterId, int limit, boolean includeImages) {
+        int pageSize = pageSize(limit);
+        List<Planet> planets = planetDao.readPlanetPageByOwner(ownerId, afterId, pageSize + 1, includeImages);
+        return toPage(planets, pageSize);
+    }
+
+    @Override
+    public Page<CatalogPlanet> selectCatalogPage(Integer ownerId, int afterId, int limit) {
+        int pageSize = pageSize(limit);
+        List<CatalogPlanet> planets = planetDao.readCatalogPage(ownerId, afterId, pageSize + 1);
+        return toPage(planets, pageSize);
+    }
+
+    private int pageSize(int limit) {
+        if (limit < 1) {
+            throw new PlanetFail("Page limit must be at least 1");
         }
+        return Math.min(limit, Paging.MAX_PAGE_SIZE);
+    }
+
+    private <P extends Planet> Page<P> toPage(List<P> planets, int pageSize) {
+        // one extra row was requested so we know whether another page follows
+        if (planets.size() > pageSize) {
+            planets = planets.subList(0, pageSize);
+            String nextCursor = String.valueOf(planets.get(pageSize - 1).getPlanetId());
+            return new Page<>(planets, nextCursor, pageSize);
+        }
+        return new Page<>(planets, null, pageSize);
+    }
+
+    @Override
+    public byte[] selectPlanetImage(int id) {
+        Optional<byte[]> image = planetDao.readPlanetImage(id);
+        if (image.isPresent()) {
+            return image.get();
+        } else {
+            throw new PlanetFail("Planet image not found");
+        }
+    }
+
+    @Override
+    public String selectPlanetImageHash(int id) {
+        Optional<String> hash = planetDao.readPlanetImageHash(id);
+        if (hash.isPresent()) {
+            return hash.get();
+        } else {
+            throw new PlanetFail("Planet image not found");
+        }
+    }
+
+    /*
+     * Falls back to the full image while the thumbnail has not been generated yet, or when the
+     * image could not be decoded.
+     */
+    @Override
+    public byte[] selectPlanetThumbnail(int id, int size) {
+        Optional<byte[]> thumbnail = planetDao.readPlanetThumbnail(id, size);
+        if (thumbnail.isPresent()) {
+            return thumbnail.get();
+        }
+        return selectPlanetImage(id);
+    }
+
+    @Override
+    public long selectDataVersion() {
+        return planetDao.readDataVersion();
+    }
+
+    @Override
+    public Planet updatePlanet(Planet planet) {
         if (planet.getPlanetName().length() < 1 || planet.getPlanetName().length() > 30) {
             throw new PlanetFail("Planet name must be between 1 and 30 characters, could not update");
         }
-        if (!planet.getPlanetName().equals(existingPlanet.get().getPlanetName())) {
-            if (planetDao.readPlanet(planet.getPlanetName()).isPresent()) {
-                throw new PlanetFail("Planet name must be unique, could not update");
-            }
-        }
+        // a single UPDATE: no changed row means no such planet, a name clash fails the unique index
         Optional<Planet> updatedPlanet = planetDao.updatePlanet(planet);
         if (updatedPlanet.isPresent()) {
             return updatedPlanet.get();
         } else {
-            throw new PlanetFail("Planet update failed, please try again");
+            throw new PlanetFail("Planet not found, could not update");
         }
     }
 
@@ -85,9 +224,9 @@ public class PlanetServiceImp<T> implements PlanetService<T> {
     public String deletePlanet(T idOrName) {
         boolean deleted;
         if (idOrName instanceof Integer) {
-            deleted = planetDao.deletePlanet((int) idOrName);
+            deleted = planetDao.deletePlanet((int) idOrName).isPresent();
         } else if (idOrName instanceof String) {
-            deleted = planetDao.deletePlanet((String) idOrName);
+            deleted = planetDao.deletePlanet((String) idOrName).isPresent();
         } else {
             throw new PlanetFail("identifier must be an Integer or String");
         }
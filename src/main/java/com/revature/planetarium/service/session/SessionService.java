@@ -0,0 +1,10 @@
+package com.revature.planetarium.service.session;
+
+public interface SessionService {
+
+    String startSession(String username);
+    String authenticate(String sessionId);
+    void endSession(String sessionId);
+    int countSessions();
+
+}
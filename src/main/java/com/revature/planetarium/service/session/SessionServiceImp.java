@@ -0,0 +1,91 @@
+package com.revature.planetarium.service.session;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.revature.planetarium.entities.Session;
+import com.revature.planetarium.exceptions.AuthenticationFailed;
+import com.revature.planetarium.repository.session.SessionDao;
+
+/*
+ * Issues random session ids and checks them against a SessionDao. Sessions expire after ttlMillis
+ * without use; to keep the store from being written on every request, a session is only extended
+ * once less than half of its lifetime is left. A background sweep removes expired sessions and, if
+ * there are more than maxSessions, the least recently used ones.
+ */
+public class SessionServiceImp implements SessionService {
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private final SessionDao sessionDao;
+    private final long ttlMillis;
+    private final int maxSessions;
+
+    public SessionServiceImp(SessionDao sessionDao, long ttlMillis, int maxSessions) {
+        if (ttlMillis < 1 || maxSessions < 1) {
+            throw new IllegalArgumentException("Session ttl and maximum must be positive");
+        }
+        this.sessionDao = sessionDao;
+        this.ttlMillis = ttlMillis;
+        this.maxSessions = maxSessions;
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.min(ttlMillis, 60000);
+        sweeper.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String startSession(String username) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String sessionId = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessionDao.createSession(new Session(sessionId, username, System.currentTimeMillis() + ttlMillis));
+        return sessionId;
+    }
+
+    @Override
+    public String authenticate(String sessionId) {
+        if (sessionId == null || sessionId.isBlank()) {
+            throw new AuthenticationFailed("Please log in first");
+        }
+        long now = System.currentTimeMillis();
+        Optional<Session> session = sessionDao.readSession(sessionId);
+        if (session.isEmpty() || session.get().isExpired(now)) {
+            throw new AuthenticationFailed("Please log in first");
+        }
+        if (session.get().getExpiresAt() - now < ttlMillis / 2) {
+            sessionDao.extendSession(sessionId, now + ttlMillis);
+        }
+        return session.get().getUsername();
+    }
+
+    @Override
+    public void endSession(String sessionId) {
+        if (sessionId != null) {
+            sessionDao.deleteSession(sessionId);
+        }
+    }
+
+    @Override
+    public int countSessions() {
+        return sessionDao.countSessions();
+    }
+
+    private void sweep() {
+        try {
+            sessionDao.deleteExpiredSessions(System.currentTimeMillis());
+            sessionDao.trimSessions(maxSessions);
+        } catch (RuntimeException e) {
+            // a failed sweep is retried on the next run; the scheduler would stop on a thrown exception
+            System.out.println(e);
+        }
+    }
+
+}
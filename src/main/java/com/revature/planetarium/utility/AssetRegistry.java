@@ -0,0 +1,146 @@
+package com.revature.planetarium.utility;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+/*
+ * Static binary assets (the images directory) loaded once at startup. Each asset is published under
+ * a fingerprinted name such as /assets/galaxy-4.1a2b3c4d5e6f.jpg, so its bytes never change for a
+ * given URL and browsers may cache it forever. Pages refer to assets with {{asset:galaxy-4.jpg}}
+ * placeholders, which resolve() swaps for the fingerprinted URL when the page is loaded.
+ */
+public class AssetRegistry {
+
+    private static final Pattern REFERENCE = Pattern.compile("\\{\\{asset:([^}]+)}}");
+
+    private final Map<String, Asset> byName = new ConcurrentHashMap<>();
+    private final Map<String, Asset> byFingerprintedName = new ConcurrentHashMap<>();
+
+    public static AssetRegistry fromClasspath() {
+        AssetRegistry registry = new AssetRegistry();
+        try (Stream<Path> files = Files.list(ClasspathResources.directory("images"))) {
+            files.filter(Files::isRegularFile).forEach(registry::load);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load assets: " + e.getMessage(), e);
+        }
+        return registry;
+    }
+
+    public Asset get(String name) {
+        return byName.get(name);
+    }
+
+    public Asset getByFingerprintedName(String fingerprintedName) {
+        return byFingerprintedName.get(fingerprintedName);
+    }
+
+    public String resolve(String content) {
+        Matcher matcher = REFERENCE.matcher(content);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            Asset asset = byName.get(matcher.group(1));
+            String replacement = asset != null ? asset.getUrl() : matcher.group();
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    private void load(Path file) {
+        try {
+            Asset asset = new Asset(file.getFileName().toString(), Files.readAllBytes(file));
+            byName.put(asset.name, asset);
+            byFingerprintedName.put(asset.fingerprintedName, asset);
+        } catch (IOException e) {
+            System.out.println("Could not load asset " + file + ": " + e.getMessage());
+        }
+    }
+
+    public static class Asset {
+
+        private final String name;
+        private final String fingerprintedName;
+        private final byte[] content;
+        private final String contentType;
+        private final String hash;
+        private final String etag;
+        private volatile byte[][] base64;
+
+        Asset(String name, byte[] content) {
+            String hash = Hashing.sha256Hex(content).substring(0, 12);
+            int dot = name.lastIndexOf('.');
+            this.name = name;
+            this.fingerprintedName = dot < 0 ? name + "." + hash : name.substring(0, dot) + "." + hash + name.substring(dot);
+            this.content = content;
+            this.contentType = contentType(name);
+            this.hash = hash;
+            this.etag = "\"" + hash + "\"";
+        }
+
+        public String getUrl() {
+            return "/assets/" + fingerprintedName;
+        }
+
+        /*
+         * The fingerprinted URL only ever names these bytes, so the response may be cached for a year
+         * without revalidation.
+         */
+        public void send(Context ctx) {
+            boolean notModified = HttpCaching.notModified(ctx, etag);
+            ctx.header(Header.CACHE_CONTROL, "public, max-age=31536000, immutable");
+            if (notModified) {
+                return;
+            }
+            ctx.contentType(contentType);
+            ctx.header(Header.CONTENT_LENGTH, String.valueOf(content.length));
+            ctx.result(content);
+            ctx.status(200);
+        }
+
+        /*
+         * Base64 text for clients of the old /background route. The text and its gzip variant are
+         * built once on first use instead of on every request.
+         */
+        public void sendBase64(Context ctx) {
+            byte[][] encoded = base64;
+            if (encoded == null) {
+                byte[] text = Base64.getEncoder().encode(content);
+                encoded = new byte[][] { text, Compression.gzip(text) };
+                base64 = encoded;
+            }
+            if (HttpCaching.notModified(ctx, Compression.precompressedEtag(ctx, "\"" + hash + "-base64\"", encoded[0], encoded[1]))) {
+                return;
+            }
+            Compression.sendPrecompressed(ctx, "text/plain", encoded[0], encoded[1]);
+            ctx.status(200);
+        }
+
+        private static String contentType(String name) {
+            String lower = name.toLowerCase();
+            if (lower.endsWith(".png")) {
+                return "image/png";
+            } else if (lower.endsWith(".gif")) {
+                return "image/gif";
+            } else if (lower.endsWith(".svg")) {
+                return "image/svg+xml";
+            } else if (lower.endsWith(".webp")) {
+                return "image/webp";
+            } else if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+                return "image/jpeg";
+            }
+            return "application/octet-stream";
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.revature.planetarium.utility;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.javalin.http.Context;
+import io.javalin.json.JavalinJackson;
+
+/*
+ * Reads the body of a bulk request, which is either a JSON array or NDJSON (one JSON object per
+ * line). Throws IllegalArgumentException for malformed input or when the request carries more than
+ * PLANETARIUM_BULK_MAX_ITEMS items. Both forms are read an item at a time and items are counted as
+ * they are read, so an oversized body is refused once it passes the limit rather than after all of
+ * it is in memory. Imports that commit as they go do so every CHUNK_SIZE items.
+ */
+public class BulkRequests {
+
+    public static final int MAX_ITEMS = Settings.getInt("PLANETARIUM_BULK_MAX_ITEMS", 50000);
+    public static final int CHUNK_SIZE = Math.max(1, Settings.getInt("PLANETARIUM_BULK_CHUNK_SIZE", 1000));
+
+    private static final ObjectMapper MAPPER = JavalinJackson.defaultMapper();
+
+    public static <T> List<T> parse(Context ctx, Class<T> type) {
+        try (PushbackInputStream body = new PushbackInputStream(ctx.bodyInputStream(), 1)) {
+            return startsWithArray(body) ? readArray(body, type) : readLines(ctx, body, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read request body");
+        }
+    }
+
+    private static boolean startsWithArray(PushbackInputStream body) throws IOException {
+        int next;
+        do {
+            next = body.read();
+        } while (next != -1 && Character.isWhitespace(next));
+        if (next != -1) {
+            body.unread(next);
+        }
+        return next == '[';
+    }
+
+    private static <T> List<T> readArray(InputStream body, Class<T> type) {
+        List<T> items = new ArrayList<>();
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            // the opening bracket, already seen by startsWithArray
+            parser.nextToken();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Request body is not a valid JSON array");
+                }
+                checkLimit(items);
+                items.add(token == JsonToken.VALUE_NULL ? null : MAPPER.readValue(parser, type));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Request body is not a valid JSON array");
+        }
+        return items;
+    }
+
+    private static <T> List<T> readLines(Context ctx, InputStream body, Class<T> type) throws IOException {
+        List<T> items = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            checkLimit(items);
+            if (line.trim().equals("null")) {
+                // left to the services, which reject it as that item
+                items.add(null);
+                continue;
+            }
+            try {
+                items.add(ctx.jsonMapper().fromJsonString(line, type));
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid JSON on line " + lineNumber);
+            }
+        }
+        return items;
+    }
+
+    private static void checkLimit(List<?> items) {
+        if (items.size() >= MAX_ITEMS) {
+            throw new IllegalArgumentException("Bulk requests are limited to " + MAX_ITEMS + " items");
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.revature.planetarium.utility;
+
+/*
+ * A single byte range of an image response (RFC 7233). Only one range per request is served: a
+ * request for several ranges gets the whole image, as does one whose If-Range validator no longer
+ * matches, both of which the RFC allows. Responses carry no Last-Modified, so a date in If-Range
+ * never matches either.
+ */
+public class ByteRange {
+
+    private final long start;
+    private final long end;
+    private final long size;
+
+    private ByteRange(long start, long end, long size) {
+        this.start = start;
+        this.end = end;
+        this.size = size;
+    }
+
+    /*
+     * The range requested for a representation of size bytes with the given ETag, or null when the
+     * whole representation should be sent. An unsatisfiable range is returned as such and must be
+     * answered with 416.
+     */
+    public static ByteRange parse(String range, String ifRange, String etag, long size) {
+        if (range == null || (ifRange != null && !ifRange.trim().equals(etag))) {
+            return null;
+        }
+        range = range.trim();
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return new ByteRange(-1, -1, size);
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1, size);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= size) {
+                return new ByteRange(-1, -1, size);
+            }
+            return new ByteRange(start, Math.min(end, size - 1), size);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isSatisfiable() {
+        return start >= 0;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    // the Content-Range header value for a 206, or for a 416 when the range is unsatisfiable
+    public String contentRange() {
+        return isSatisfiable() ? "bytes " + start + "-" + end + "/" + size : "bytes */" + size;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.revature.planetarium.utility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+public class ClasspathResources {
+
+    /*
+     * Resolves a classpath directory to a Path that can be listed, whether the classes run from a
+     * build directory or from inside the shaded jar.
+     */
+    public static Path directory(String name) {
+        URL url = ClasspathResources.class.getClassLoader().getResource(name);
+        if (url == null) {
+            throw new IllegalStateException("No " + name + " directory on the classpath");
+        }
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                FileSystem jar;
+                try {
+                    jar = FileSystems.getFileSystem(uri);
+                } catch (FileSystemNotFoundException e) {
+                    jar = FileSystems.newFileSystem(uri, Collections.emptyMap());
+                }
+                return jar.getPath(name);
+            }
+            return Paths.get(uri);
+        } catch (URISyntaxException | IOException e) {
+            throw new IllegalStateException("Could not open " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.revature.planetarium.utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.compression.Gzip;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+/*
+ * Response compression settings. Dynamic responses (JSON lists, messages) are gzipped on the fly by
+ * Javalin once they pass PLANETARIUM_COMPRESSION_MIN_SIZE bytes, except streamed arrays, which
+ * JsonStreams gzips itself; image, audio, video and archive types are never recompressed. Static content is compressed once with gzip() and sent through
+ * sendPrecompressed(), which sets Content-Encoding itself so Javalin leaves the bytes alone. The
+ * gzip and identity bytes are different representations, so each gets its own strong ETag (see
+ * precompressedEtag) and every response varies on Accept-Encoding.
+ *
+ * Brotli is not offered: Javalin's brotli support needs the native brotli4j library.
+ */
+public class Compression {
+
+    public static final boolean ENABLED = Settings.getBoolean("PLANETARIUM_COMPRESSION", true);
+    public static final int GZIP_LEVEL = Settings.getInt("PLANETARIUM_GZIP_LEVEL", 6);
+    public static final int MIN_SIZE = Settings.getInt("PLANETARIUM_COMPRESSION_MIN_SIZE", 1024);
+
+    public static CompressionStrategy strategy() {
+        if (!ENABLED) {
+            return CompressionStrategy.NONE;
+        }
+        CompressionStrategy strategy = new CompressionStrategy(null, new Gzip(GZIP_LEVEL));
+        strategy.setDefaultMinSizeForCompression(MIN_SIZE);
+        return strategy;
+    }
+
+    public static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 64);
+        // static content is compressed once, so spend the extra CPU on the best ratio
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    // a gzip stream at GZIP_LEVEL for bodies written incrementally; the caller finishes it
+    public static GZIPOutputStream gzipStream(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, 8192) {{ def.setLevel(GZIP_LEVEL); }};
+    }
+
+    public static boolean acceptsGzip(Context ctx) {
+        String acceptEncoding = ctx.header(Header.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip") || parts[0].trim().equals("*")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // the ETag of the gzip variant of the representation etag names
+    public static String gzipEtag(String etag) {
+        return etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag + "-gzip";
+    }
+
+    /*
+     * Sets Vary and returns the ETag of the variant sendPrecompressed will pick for this request, for
+     * the caller's HttpCaching.notModified check, so a 304 carries the same validator and Vary as the
+     * 200 it stands for.
+     */
+    public static String precompressedEtag(Context ctx, String etag, byte[] identity, byte[] gzipped) {
+        ctx.header(Header.VARY, Header.ACCEPT_ENCODING);
+        return sendsGzip(ctx, identity, gzipped) ? gzipEtag(etag) : etag;
+    }
+
+    private static boolean sendsGzip(Context ctx, byte[] identity, byte[] gzipped) {
+        return gzipped != null && identity.length >= MIN_SIZE && gzipped.length < identity.length && acceptsGzip(ctx);
+    }
+
+    /*
+     * Sends content that was compressed ahead of time, falling back to the identity bytes when the
+     * client does not accept gzip or compression would not pay off.
+     */
+    public static void sendPrecompressed(Context ctx, String contentType, byte[] identity, byte[] gzipped) {
+        ctx.contentType(contentType);
+        ctx.header(Header.VARY, Header.ACCEPT_ENCODING);
+        if (sendsGzip(ctx, identity, gzipped)) {
+            ctx.header(Header.CONTENT_ENCODING, "gzip");
+            ctx.header(Header.CONTENT_LENGTH, String.valueOf(gzipped.length));
+            ctx.result(gzipped);
+        } else {
+            ctx.minSizeForCompression(identity.length + 1);
+            ctx.header(Header.CONTENT_LENGTH, String.valueOf(identity.length));
+            ctx.result(identity);
+        }
+    }
+
+}
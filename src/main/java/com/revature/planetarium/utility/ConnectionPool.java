@@ -0,0 +1,264 @@
+package com.revature.planetarium.utility;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Bounded pool of physical SQLite connections. Callers receive a proxy whose close() hands the
+ * physical connection back to the pool, so the DAO try-with-resources blocks work unchanged.
+ */
+public class ConnectionPool {
+
+    /*
+     * Prepares each physical connection once, when it is opened (e.g. to register SQL functions).
+     */
+    public interface Initializer {
+        void initialize(Connection physical) throws SQLException;
+    }
+
+    private final String url;
+    private final Properties properties;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final Initializer initializer;
+
+    private final Semaphore permits;
+    private final BlockingQueue<Connection> idle;
+    private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leakDetector;
+
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, Properties properties, int maxSize, long acquireTimeoutMillis, long leakThresholdMillis,
+            Initializer initializer) {
+        if (url == null) {
+            throw new IllegalStateException("No database url configured");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.url = url;
+        this.properties = properties;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.initializer = initializer;
+        this.permits = new Semaphore(maxSize, true);
+        this.idle = new LinkedBlockingQueue<>(maxSize);
+        this.leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-leak-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (leakThresholdMillis > 0) {
+            long period = Math.max(1000, leakThresholdMillis / 2);
+            leakDetector.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean permitted;
+        try {
+            permitted = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection");
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        SqlMetrics.recordAcquire(waited);
+        if (!permitted) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Timed out after " + acquireTimeoutMillis + "ms waiting for a database connection");
+        }
+        try {
+            Connection physical = takeIdleOrCreate();
+            acquired.incrementAndGet();
+            leases.put(physical, new Lease());
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection takeIdleOrCreate() throws SQLException {
+        Connection physical;
+        while ((physical = idle.poll()) != null) {
+            if (!physical.isClosed()) {
+                return physical;
+            }
+            totalConnections.decrementAndGet();
+        }
+        physical = DriverManager.getConnection(url, properties);
+        try {
+            initializer.initialize(physical);
+        } catch (SQLException | RuntimeException e) {
+            physical.close();
+            throw e;
+        }
+        totalConnections.incrementAndGet();
+        return physical;
+    }
+
+    private void release(Connection physical) {
+        leases.remove(physical);
+        try {
+            boolean reusable = !closed && !physical.isClosed();
+            if (reusable && !physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (!reusable || !idle.offer(physical)) {
+                discard(physical);
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            discard(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Connection physical) {
+        totalConnections.decrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            System.out.println(e);
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (Lease lease : leases.values()) {
+            if (!lease.reported && now - lease.checkedOutAt > leakThresholdMillis) {
+                lease.reported = true;
+                leaksDetected.incrementAndGet();
+                System.out.println("Possible connection leak: connection held by " + lease.thread
+                        + " for more than " + leakThresholdMillis + "ms");
+                lease.origin.printStackTrace(System.out);
+            }
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PooledConnectionHandler(physical));
+    }
+
+    public PoolStats getStats() {
+        int total = totalConnections.get();
+        int active = leases.size();
+        return new PoolStats(
+                maxSize,
+                total,
+                active,
+                idle.size(),
+                waiting.get(),
+                acquired.get(),
+                timeouts.get(),
+                leaksDetected.get(),
+                TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+    }
+
+    public void close() {
+        closed = true;
+        leakDetector.shutdownNow();
+        Connection physical;
+        while ((physical = idle.poll()) != null) {
+            discard(physical);
+        }
+    }
+
+    private static class Lease {
+        final long checkedOutAt = System.currentTimeMillis();
+        final String thread = Thread.currentThread().getName();
+        final Exception origin = new Exception("Connection checked out here");
+        volatile boolean reported;
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+
+        private final Connection physical;
+        private boolean returned;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Statement) {
+                        // prepareStatement(sql, ...) knows its text now; createStatement() learns it at execute
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        return InstrumentedJdbc.wrapStatement(method.getReturnType(), (Statement) result, sql);
+                    }
+                    return result;
+            }
+        }
+    }
+
+}
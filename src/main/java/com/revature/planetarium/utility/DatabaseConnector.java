@@ -1,18 +1,55 @@
 package com.revature.planetarium.utility;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 import org.sqlite.SQLiteConfig;
 
 public class DatabaseConnector {
 
+    private static volatile ConnectionPool pool;
+
     public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    public static PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnector.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ConnectionPool createPool() {
         SQLiteConfig config = new SQLiteConfig();
         config.enforceForeignKeys(true);
-        String url = System.getenv("PLANETARIUM");
-        return DriverManager.getConnection(url, config.toProperties());
+        PragmaProfile profile = PragmaProfile.fromSettings();
+        profile.apply(config);
+        System.out.println("Using SQLite pragma profile " + profile);
+        String url = Settings.getString("PLANETARIUM", null);
+        // under virtual threads the pool size also caps how many carriers can be pinned by SQLite
+        int size = ServerThreads.dbMaxConcurrency(Settings.getInt("PLANETARIUM_POOL_SIZE", 8));
+        long acquireTimeout = Settings.getInt("PLANETARIUM_POOL_TIMEOUT_MS", 5000);
+        long leakThreshold = Settings.getInt("PLANETARIUM_POOL_LEAK_MS", 30000);
+        return new ConnectionPool(url, config.toProperties(), size, acquireTimeout, leakThreshold, SqlFunctions::register);
     }
 
 }
@@ -0,0 +1,168 @@
+package com.revature.planetarium.utility;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/*
+ * Weight-bounded LRU cache for entities, looked up by id or by name. Entries are weighed with the
+ * supplied weigher (image bytes dominate) and the least recently used entries are evicted once the
+ * total weight passes maxWeight. Entries also expire after ttlMillis so rows changed outside this
+ * process (other nodes, the test reset script) are picked up eventually.
+ *
+ * Read-through callers take a stamp() before reading from the database and hand it to put(). Every
+ * invalidation advances the stamp, so a row read before a concurrent update or delete is dropped
+ * instead of being cached after the invalidation that was meant to remove it.
+ *
+ * Cached values are shared between callers and must be treated as read-only.
+ */
+public class EntityCache<V> {
+
+    private final String name;
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final Function<V, Integer> idOf;
+    private final Function<V, String> nameOf;
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<Integer, Entry<V>> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Integer> idByName = new HashMap<>();
+    private long weight;
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public EntityCache(String name, long maxWeight, long ttlMillis, Function<V, Integer> idOf,
+                       Function<V, String> nameOf, ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+        this.weigher = weigher;
+    }
+
+    public synchronized V getById(int id) {
+        Entry<V> entry = byId.get(id);
+        if (entry == null || isExpired(entry)) {
+            if (entry != null) {
+                remove(id);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized V getByName(String entityName) {
+        Integer id = idByName.get(entityName);
+        if (id == null) {
+            misses++;
+            return null;
+        }
+        return getById(id);
+    }
+
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    public synchronized void put(V value, long stamp) {
+        long entryWeight = weigher.applyAsLong(value);
+        if (stamp != generation || entryWeight > maxWeight) {
+            return;
+        }
+        int id = idOf.apply(value);
+        remove(id);
+        byId.put(id, new Entry<>(value, entryWeight, System.currentTimeMillis() + ttlMillis));
+        idByName.put(nameOf.apply(value), id);
+        weight += entryWeight;
+        evictOverflow();
+    }
+
+    public synchronized void invalidate(int id) {
+        generation++;
+        remove(id);
+    }
+
+    public synchronized void invalidateName(String entityName) {
+        generation++;
+        Integer id = idByName.get(entityName);
+        if (id != null) {
+            remove(id);
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<V> predicate) {
+        generation++;
+        Iterator<Map.Entry<Integer, Entry<V>>> it = byId.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<V> entry = it.next().getValue();
+            if (predicate.test(entry.value)) {
+                it.remove();
+                unindex(entry);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        byId.clear();
+        idByName.clear();
+        weight = 0;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(name, hits, misses, evictions, byId.size(), weight, maxWeight);
+    }
+
+    private void remove(int id) {
+        Entry<V> entry = byId.remove(id);
+        if (entry != null) {
+            unindex(entry);
+        }
+    }
+
+    private void unindex(Entry<V> entry) {
+        weight -= entry.weight;
+        String entityName = nameOf.apply(entry.value);
+        Integer id = idOf.apply(entry.value);
+        if (id.equals(idByName.get(entityName))) {
+            idByName.remove(entityName);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Integer, Entry<V>>> it = byId.entrySet().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            Entry<V> eldest = it.next().getValue();
+            it.remove();
+            unindex(eldest);
+            evictions++;
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return System.currentTimeMillis() > entry.expiresAt;
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long weight;
+        final long expiresAt;
+
+        Entry(V value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
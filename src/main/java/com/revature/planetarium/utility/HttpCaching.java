@@ -0,0 +1,57 @@
+package com.revature.planetarium.utility;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+public class HttpCaching {
+
+    /*
+     * Builds a strong ETag from a data version rather than from the response body. The variant
+     * (usually the query string) tells apart different representations of the same data.
+     */
+    public static String etag(String prefix, long version, String variant) {
+        return "\"" + prefix + "-" + version + "-" + Integer.toHexString(variant == null ? 0 : variant.hashCode()) + "\"";
+    }
+
+    /*
+     * Sets the ETag header and answers 304 Not Modified when the request's If-None-Match already
+     * names it. Returns true when the caller should skip writing a body. Responses stay in private
+     * caches but must be revalidated before each reuse.
+     *
+     * A client accepting gzip may hold the gzip variant JsonStreams sent under the same data version;
+     * its tag matches too, and the 304 carries that tag back.
+     */
+    public static boolean notModified(Context ctx, String etag) {
+        ctx.header(Header.CACHE_CONTROL, "private, no-cache");
+        ctx.header(Header.ETAG, etag);
+        String ifNoneMatch = ctx.header(Header.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        if (matches(ifNoneMatch, etag)) {
+            ctx.status(304);
+            return true;
+        }
+        String gzipEtag = Compression.gzipEtag(etag);
+        if (Compression.acceptsGzip(ctx) && matches(ifNoneMatch, gzipEtag)) {
+            ctx.header(Header.ETAG, gzipEtag);
+            ctx.status(304);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.revature.planetarium.utility;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Moves the images stored in the database into the filesystem image store, for switching an
+ * existing database to PLANETARIUM_IMAGE_STORE=files. Runs against the configured database:
+ *
+ *   java -cp <classpath> com.revature.planetarium.utility.ImageFileMigration [--vacuum]
+ *
+ * It may run while the server is up, and may be interrupted and run again: every batch writes its
+ * files and clears their bytes in one transaction, and images already moved are skipped. Files left
+ * behind by rolled-back uploads are pruned at the end. SQLite reuses the pages the bytes occupied;
+ * --vacuum also rewrites the database file so it shrinks on disk.
+ */
+public class ImageFileMigration {
+
+    private static final int BATCH_SIZE = 50;
+
+    public static void main(String[] args) throws IOException, SQLException {
+        boolean vacuum = args.length > 0 && args[0].equals("--vacuum");
+        SchemaMigrator.migrate();
+        System.out.println("Moving images to " + ImageFiles.ROOT);
+        int moved = 0;
+        long bytes = 0;
+        String afterHash = "";
+        while (true) {
+            Map<String, byte[]> batch = readBatch(afterHash);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Map.Entry<String, byte[]> image : moveBatch(batch).entrySet()) {
+                moved++;
+                bytes += image.getValue().length;
+            }
+            for (String hash : batch.keySet()) {
+                afterHash = hash;
+            }
+        }
+        System.out.println("Moved " + moved + " images (" + bytes + " bytes)");
+        System.out.println("Pruned " + ImageFiles.pruneOrphans(ImageFiles.ORPHAN_MIN_AGE_MILLIS) + " orphaned image files");
+        if (vacuum) {
+            try (Connection conn = DatabaseConnector.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("VACUUM");
+            }
+            System.out.println("Vacuumed the database");
+        }
+        DatabaseConnector.shutdown();
+    }
+
+    private static Map<String, byte[]> readBatch(String afterHash) throws SQLException {
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT hash, image FROM images WHERE hash > ? AND image IS NOT NULL ORDER BY hash LIMIT ?")) {
+            stmt.setString(1, afterHash);
+            stmt.setInt(2, BATCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    batch.put(rs.getString("hash"), rs.getBytes("image"));
+                }
+            }
+        }
+        return batch;
+    }
+
+    /*
+     * Clears the bytes first so the transaction holds the write lock while the files are written;
+     * see ImageFiles. Images deleted since the batch was read are skipped.
+     */
+    private static Map<String, byte[]> moveBatch(Map<String, byte[]> batch) throws IOException, SQLException {
+        Map<String, byte[]> moved = new LinkedHashMap<>();
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE images SET image = NULL WHERE hash = ? AND image IS NOT NULL")) {
+                for (Map.Entry<String, byte[]> image : batch.entrySet()) {
+                    stmt.setString(1, image.getKey());
+                    if (stmt.executeUpdate() > 0) {
+                        ImageFiles.write(image.getKey(), image.getValue());
+                        moved.put(image.getKey(), image.getValue());
+                    }
+                }
+            }
+            conn.commit();
+        }
+        return moved;
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.revature.planetarium.utility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * The filesystem image store (migration V6). With PLANETARIUM_IMAGE_STORE=files new images are
+ * written to PLANETARIUM_IMAGE_DIR as <dir>/ab/cd/<hash>, sharded by the first two bytes of their
+ * hash so no directory grows past a few hundred entries, and their images row keeps no bytes. With
+ * the default PLANETARIUM_IMAGE_STORE=sqlite new images are stored in the database, but images
+ * already moved out (see ImageFileMigration) are still read from their files.
+ *
+ * Files are written while the inserting transaction holds the database write lock, and removed by
+ * deleteFiles after the deleting transaction has committed, under the write lock again, so a file
+ * can never be deleted from under a row that is being committed or that a rollback restores.
+ */
+public class ImageFiles {
+
+    public static final boolean ENABLED = storeFromSettings();
+    public static final Path ROOT = Path.of(Settings.getString("PLANETARIUM_IMAGE_DIR", "image-store")).toAbsolutePath();
+    // files younger than this may belong to an upload whose transaction is still open
+    public static final long ORPHAN_MIN_AGE_MILLIS = 60 * 60 * 1000;
+
+    public static Path pathFor(String hash) {
+        return ROOT.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /*
+     * Writes to a temporary file next to the target, forces it to disk and moves it into place, so a
+     * reader or a crash never sees a partial image. Content is immutable per hash, so an existing
+     * file of the right length is kept, touched so pruneOrphans leaves it alone.
+     */
+    public static void write(String hash, byte[] image) throws IOException {
+        Path target = pathFor(hash);
+        if (Files.isRegularFile(target) && Files.size(target) == image.length) {
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(image);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static byte[] read(String hash) throws IOException {
+        return Files.readAllBytes(pathFor(hash));
+    }
+
+    /*
+     * The image of a row selected with both imageHash and the joined images.image column: the
+     * stored bytes, the file's bytes when the image was moved out, or null when there is no image.
+     */
+    public static byte[] imageBytes(ResultSet rs) throws SQLException {
+        byte[] image = rs.getBytes("image");
+        String hash = rs.getString("imageHash");
+        if (image != null || hash == null) {
+            return image;
+        }
+        try {
+            return read(hash);
+        } catch (IOException e) {
+            throw new SQLException("Could not read image file for " + hash + ": " + e, e);
+        }
+    }
+
+    /*
+     * Deletes the rows of file-backed images no planet or moon references any longer and returns
+     * their hashes. The refcount triggers delete unreferenced rows holding their bytes themselves, so
+     * the DAOs call this on the connection of a delete of planets or moons, inside its transaction,
+     * and pass the hashes to deleteFiles once that transaction has committed; a rollback then leaves
+     * rows and files as they were. The partial index from V6 covers only file-backed rows, so on a
+     * database without them this is one empty index probe.
+     */
+    public static List<String> deleteUnreferenced(Connection conn) throws SQLException {
+        List<String> hashes = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM images WHERE image IS NULL AND refs <= 0 RETURNING hash");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                hashes.add(rs.getString("hash"));
+            }
+        }
+        return hashes;
+    }
+
+    /*
+     * Deletes the files of images whose rows a committed transaction removed, on the same connection
+     * and in a transaction of its own. That transaction takes the write lock with its first statement
+     * and a file goes only while its hash still has no row, so an upload of the same image, which
+     * writes the file under that lock, cannot lose it. Failures are only logged: the delete itself
+     * has committed, and a file left behind is an orphan for pruneOrphans.
+     */
+    public static void deleteFiles(Connection conn, List<String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        try {
+            conn.setAutoCommit(false);
+            try (PreparedStatement lock = conn.prepareStatement("DELETE FROM images WHERE 0");
+                 PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM images WHERE hash = ?")) {
+                lock.executeUpdate();
+                for (String hash : hashes) {
+                    stmt.setString(1, hash);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            Files.deleteIfExists(pathFor(hash));
+                        }
+                    }
+                }
+            }
+            conn.commit();
+        } catch (SQLException | IOException e) {
+            System.out.println("Could not delete unreferenced image files: " + e);
+        }
+    }
+
+    /*
+     * Deletes files without an images row that are older than minAgeMillis, left behind when the
+     * transaction that wrote them rolled back (for example on a duplicate name) or when deleteFiles
+     * failed. Younger files may belong to a transaction still in progress. Orphans are found with
+     * plain reads and then checked again and deleted under the write lock, so an upload reusing a
+     * file, which touches it under that lock, keeps it. Returns the number of files deleted.
+     */
+    public static int pruneOrphans(long minAgeMillis) throws IOException, SQLException {
+        if (!Files.isDirectory(ROOT)) {
+            return 0;
+        }
+        long cutoff = System.currentTimeMillis() - minAgeMillis;
+        List<Path> candidates = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(ROOT, 3)) {
+            files.filter(Files::isRegularFile).forEach(candidates::add);
+        }
+        int pruned = 0;
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM images WHERE hash = ? AND image IS NULL")) {
+            List<Path> orphans = new ArrayList<>();
+            for (Path file : candidates) {
+                if (isOrphan(stmt, file, cutoff)) {
+                    orphans.add(file);
+                }
+            }
+            if (orphans.isEmpty()) {
+                return 0;
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement lock = conn.prepareStatement("DELETE FROM images WHERE 0")) {
+                lock.executeUpdate();
+            }
+            for (Path file : orphans) {
+                if (isOrphan(stmt, file, cutoff)) {
+                    Files.deleteIfExists(file);
+                    pruned++;
+                }
+            }
+            conn.commit();
+        }
+        return pruned;
+    }
+
+    private static boolean isOrphan(PreparedStatement stmt, Path file, long cutoff) throws IOException, SQLException {
+        try {
+            if (Files.getLastModifiedTime(file).toMillis() > cutoff) {
+                return false;
+            }
+        } catch (NoSuchFileException e) {
+            // removed concurrently
+            return false;
+        }
+        stmt.setString(1, file.getFileName().toString());
+        try (ResultSet rs = stmt.executeQuery()) {
+            return !rs.next();
+        }
+    }
+
+    /*
+     * Runs pruneOrphans every PLANETARIUM_IMAGE_PRUNE_INTERVAL_MS (default an hour) on a daemon
+     * thread, when the filesystem store is enabled or files from an earlier migration exist.
+     */
+    public static void schedulePruning() {
+        if (!ENABLED && !Files.isDirectory(ROOT)) {
+            return;
+        }
+        ScheduledExecutorService pruner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-file-pruner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Settings.getInt("PLANETARIUM_IMAGE_PRUNE_INTERVAL_MS", 60 * 60 * 1000));
+        pruner.scheduleAtFixedRate(() -> {
+            try {
+                int pruned = pruneOrphans(ORPHAN_MIN_AGE_MILLIS);
+                if (pruned > 0) {
+                    System.out.println("Pruned " + pruned + " orphaned image files");
+                }
+            } catch (IOException | SQLException | RuntimeException e) {
+                System.out.println("Could not prune orphaned image files: " + e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean storeFromSettings() {
+        String store = Settings.getString("PLANETARIUM_IMAGE_STORE", "sqlite");
+        switch (store) {
+            case "sqlite":
+                return false;
+            case "files":
+                return true;
+            default:
+                throw new IllegalStateException("Unknown image store " + store + ", expected sqlite or files");
+        }
+    }
+
+}
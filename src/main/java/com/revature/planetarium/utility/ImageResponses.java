@@ -0,0 +1,163 @@
+package com.revature.planetarium.utility;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.eclipse.jetty.server.HttpOutput;
+
+import com.revature.planetarium.entities.StoredImage;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+public class ImageResponses {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // enough leading bytes for every signature contentType checks
+    private static final int SIGNATURE_LENGTH = 12;
+    public static final int CHUNK_BYTES = Math.max(SIGNATURE_LENGTH, Settings.getInt("PLANETARIUM_IMAGE_CHUNK_BYTES", 256 * 1024));
+
+    /*
+     * Writes raw image bytes with a content type sniffed from the file signature, an explicit
+     * Content-Length and a strong ETag so browsers revalidate instead of downloading again.
+     */
+    public static void send(Context ctx, String entityTag, byte[] image) {
+        CRC32 crc = new CRC32();
+        crc.update(image);
+        String etag = "\"" + entityTag + "-" + image.length + "-" + Long.toHexString(crc.getValue()) + "\"";
+        if (HttpCaching.notModified(ctx, etag)) {
+            return;
+        }
+        ctx.contentType(contentType(image));
+        ctx.header(Header.CONTENT_LENGTH, String.valueOf(image.length));
+        ctx.result(image);
+        ctx.status(200);
+    }
+
+    public interface ChunkReader {
+        byte[] read(long offset, int length);
+    }
+
+    /*
+     * Answers a request for a stored image: 304 when If-None-Match names its hash, 206 with the
+     * requested bytes for a satisfiable Range (see ByteRange), 416 for an unsatisfiable one and 200
+     * with the whole image otherwise, an empty body for an empty image. Images addressed by their
+     * hash may be cached forever; the others are revalidated.
+     *
+     * Only a bounded part of an image is on the heap at a time. An image in the hot image cache is
+     * already off-heap, and the requested region of its buffer is handed to Jetty as it is. A file is
+     * memory-mapped and handed over the same way, so Jetty writes it to the socket straight from the
+     * page cache. An image in the database is read and written CHUNK_BYTES at a time through
+     * reader, one short query per chunk, so no connection is held while a slow client reads.
+     */
+    public static void sendImage(Context ctx, StoredImage image, boolean immutable, ChunkReader reader) throws IOException {
+        String etag = "\"" + image.getHash() + "\"";
+        boolean notModified = HttpCaching.notModified(ctx, etag);
+        if (immutable) {
+            ctx.header(Header.CACHE_CONTROL, IMMUTABLE);
+        }
+        if (notModified) {
+            return;
+        }
+        ctx.header(Header.ACCEPT_RANGES, "bytes");
+        ByteRange range = ByteRange.parse(ctx.header(Header.RANGE), ctx.header(Header.IF_RANGE), etag, image.getSize());
+        if (range != null && !range.isSatisfiable()) {
+            ctx.header(Header.CONTENT_RANGE, range.contentRange());
+            ctx.status(416);
+            return;
+        }
+        if (range != null) {
+            ctx.header(Header.CONTENT_RANGE, range.contentRange());
+        }
+        long start = range == null ? 0 : range.getStart();
+        long length = range == null ? image.getSize() : range.getLength();
+        int status = range == null ? 200 : 206;
+        if (length == 0) {
+            // an empty image has nothing to read or sniff; every range of it was answered with 416
+            ctx.header(Header.CONTENT_LENGTH, "0");
+            ctx.status(200);
+        } else if (image.isCached()) {
+            sendBuffer(ctx, image.getContent(), start, length, status);
+        } else if (image.isFile()) {
+            sendFile(ctx, image, start, length, status);
+        } else {
+            sendChunks(ctx, reader, start, length, status);
+        }
+    }
+
+    private static void sendBuffer(Context ctx, ByteBuffer content, long start, long length, int status) throws IOException {
+        byte[] signature = new byte[Math.min(SIGNATURE_LENGTH, content.remaining())];
+        content.duplicate().get(signature);
+        ctx.contentType(contentType(signature));
+        ctx.header(Header.CONTENT_LENGTH, String.valueOf(length));
+        ctx.status(status);
+        ByteBuffer region = content.duplicate();
+        region.position((int) start).limit((int) (start + length));
+        OutputStream out = ctx.res().getOutputStream();
+        if (out instanceof HttpOutput) {
+            ((HttpOutput) out).sendContent(region.slice());
+        } else {
+            Channels.newChannel(out).write(region);
+            out.flush();
+        }
+    }
+
+    private static void sendFile(Context ctx, StoredImage image, long start, long length, int status) throws IOException {
+        try (FileChannel channel = FileChannel.open(image.getFile(), StandardOpenOption.READ)) {
+            ByteBuffer signature = ByteBuffer.allocate(SIGNATURE_LENGTH);
+            channel.read(signature, 0);
+            ctx.contentType(contentType(Arrays.copyOf(signature.array(), signature.position())));
+            ctx.header(Header.CONTENT_LENGTH, String.valueOf(length));
+            ctx.status(status);
+            OutputStream out = ctx.res().getOutputStream();
+            if (out instanceof HttpOutput) {
+                ((HttpOutput) out).sendContent(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+            } else {
+                channel.transferTo(start, length, Channels.newChannel(out));
+            }
+        }
+    }
+
+    private static void sendChunks(Context ctx, ChunkReader reader, long start, long length, int status) throws IOException {
+        byte[] chunk = reader.read(start, (int) Math.min(CHUNK_BYTES, length));
+        byte[] signature = start == 0 ? chunk : reader.read(0, SIGNATURE_LENGTH);
+        ctx.contentType(contentType(signature));
+        ctx.header(Header.CONTENT_LENGTH, String.valueOf(length));
+        ctx.status(status);
+        OutputStream out = ctx.res().getOutputStream();
+        long written = 0;
+        while (true) {
+            out.write(chunk);
+            written += chunk.length;
+            if (written >= length) {
+                break;
+            }
+            chunk = reader.read(start + written, (int) Math.min(CHUNK_BYTES, length - written));
+            if (chunk.length == 0) {
+                throw new IOException("Image ended after " + written + " of " + length + " bytes");
+            }
+        }
+        out.flush();
+    }
+
+    public static String contentType(byte[] image) {
+        if (image.length >= 8 && (image[0] & 0xFF) == 0x89 && image[1] == 'P' && image[2] == 'N' && image[3] == 'G') {
+            return "image/png";
+        }
+        if (image.length >= 6 && image[0] == 'G' && image[1] == 'I' && image[2] == 'F') {
+            return "image/gif";
+        }
+        if (image.length >= 12 && image[0] == 'R' && image[1] == 'I' && image[2] == 'F' && image[3] == 'F'
+                && image[8] == 'W' && image[9] == 'E' && image[10] == 'B' && image[11] == 'P') {
+            return "image/webp";
+        }
+        return "image/jpeg";
+    }
+
+}
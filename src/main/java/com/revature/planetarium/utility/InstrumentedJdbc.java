@@ -0,0 +1,188 @@
+package com.revature.planetarium.utility;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+ * Proxies for the statements handed out by pooled connections, recording into SqlMetrics. An update
+ * is recorded when it returns; a query is recorded once its ResultSet is exhausted or closed (or its
+ * statement closed), with the time spent in executeQuery() and next() combined, so a streamed result
+ * set is measured as one execution rather than one per row.
+ */
+class InstrumentedJdbc {
+
+    static Object wrapStatement(Class<?> type, Statement statement, String sql) {
+        if (!SqlMetrics.ENABLED || !Statement.class.isAssignableFrom(type) || !type.isInterface()) {
+            return statement;
+        }
+        return Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] { type },
+                new StatementHandler(statement, sql));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private ResultSetHandler open;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    finishOpen();
+                    return InstrumentedJdbc.invoke(statement, method, args);
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                case "execute":
+                    return execute(method, args);
+                default:
+                    return InstrumentedJdbc.invoke(statement, method, args);
+            }
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            // Statement.execute*(String sql, ...) carries its own text; prepared statements use theirs
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            SqlMetrics.ShapeStats stats = SqlMetrics.forSql(sql);
+            finishOpen();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedJdbc.invoke(statement, method, args);
+            } catch (SQLException e) {
+                stats.record(System.nanoTime() - start, 0, 0, true);
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (result instanceof ResultSet) {
+                open = new ResultSetHandler((ResultSet) result, stats, elapsed);
+                return Proxy.newProxyInstance(
+                        ResultSet.class.getClassLoader(),
+                        new Class<?>[] { ResultSet.class },
+                        open);
+            }
+            stats.record(elapsed, updatedRows(result), 0, false);
+            return result;
+        }
+
+        private void finishOpen() {
+            if (open != null) {
+                open.finish();
+                open = null;
+            }
+        }
+
+        private static long updatedRows(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return Math.max(0, ((Number) result).longValue());
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(0, count);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final SqlMetrics.ShapeStats stats;
+        private long nanos;
+        private long rows;
+        private long blobBytes;
+        private boolean failed;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet resultSet, SqlMetrics.ShapeStats stats, long executeNanos) {
+            this.resultSet = resultSet;
+            this.stats = stats;
+            this.nanos = executeNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next":
+                    return next(method, args);
+                case "getBytes":
+                    byte[] bytes = (byte[]) InstrumentedJdbc.invoke(resultSet, method, args);
+                    if (bytes != null) {
+                        blobBytes += bytes.length;
+                    }
+                    return bytes;
+                case "close":
+                    finish();
+                    return InstrumentedJdbc.invoke(resultSet, method, args);
+                default:
+                    return InstrumentedJdbc.invoke(resultSet, method, args);
+            }
+        }
+
+        private Object next(Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            boolean hasRow;
+            try {
+                hasRow = (Boolean) InstrumentedJdbc.invoke(resultSet, method, args);
+            } catch (SQLException e) {
+                nanos += System.nanoTime() - start;
+                failed = true;
+                finish();
+                throw e;
+            }
+            nanos += System.nanoTime() - start;
+            if (hasRow) {
+                rows++;
+            } else {
+                finish();
+            }
+            return hasRow;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                stats.record(nanos, rows, blobBytes, failed);
+            }
+        }
+    }
+
+}
@@ -1,56 +1,129 @@
 package com.revature.planetarium.utility;
 
+import com.revature.planetarium.controller.AdminController;
+import com.revature.planetarium.controller.CatalogController;
+import com.revature.planetarium.controller.ImageController;
 import com.revature.planetarium.controller.MoonController;
 import com.revature.planetarium.controller.PlanetController;
 import com.revature.planetarium.controller.UserController;
 import com.revature.planetarium.controller.ViewController;
+import com.revature.planetarium.entities.Moon;
+import com.revature.planetarium.entities.Planet;
 import com.revature.planetarium.exceptions.AuthenticationFailed;
+import com.revature.planetarium.repository.image.CachingImageDao;
+import com.revature.planetarium.repository.image.ImageDao;
+import com.revature.planetarium.repository.image.ImageDaoImp;
+import com.revature.planetarium.repository.moon.CachingMoonDao;
 import com.revature.planetarium.repository.moon.MoonDao;
 import com.revature.planetarium.repository.moon.MoonDaoImp;
+import com.revature.planetarium.repository.planet.CachingPlanetDao;
 import com.revature.planetarium.repository.planet.PlanetDao;
 import com.revature.planetarium.repository.planet.PlanetDaoImp;
+import com.revature.planetarium.repository.session.CachingSessionDao;
+import com.revature.planetarium.repository.session.InMemorySessionDao;
+import com.revature.planetarium.repository.session.SessionDao;
+import com.revature.planetarium.repository.session.SessionDaoImp;
 import com.revature.planetarium.repository.user.UserDao;
 import com.revature.planetarium.repository.user.UserDaoImp;
+import com.revature.planetarium.service.image.ImageService;
+import com.revature.planetarium.service.image.ImageServiceImp;
 import com.revature.planetarium.service.moon.MoonService;
 import com.revature.planetarium.service.moon.MoonServiceImp;
 import com.revature.planetarium.service.planet.PlanetService;
 import com.revature.planetarium.service.planet.PlanetServiceImp;
+import com.revature.planetarium.service.session.SessionService;
+import com.revature.planetarium.service.session.SessionServiceImp;
 import com.revature.planetarium.service.user.UserService;
 import com.revature.planetarium.service.user.UserServiceImp;
 
 import io.javalin.Javalin;
+import io.javalin.http.Header;
 
 public class JavalinSetup {
 
     final public static UserDao userDao = new UserDaoImp();
     final public static UserService userService = new UserServiceImp(userDao);
-    final public static UserController userController = new UserController(userService);
-
-    final public static PlanetDao planetDao = new PlanetDaoImp();
+    final public static SessionDao sessionDao = createSessionDao();
+    final public static SessionService sessionService = new SessionServiceImp(sessionDao,
+            Settings.getInt("PLANETARIUM_SESSION_TTL_MS", 12 * 60 * 60 * 1000), Settings.getInt("PLANETARIUM_SESSION_MAX", 100000));
+    final public static UserController userController = new UserController(userService, sessionService);
+
+    final public static EntityCache<Planet> planetCache = CachingPlanetDao.createCache(
+            Settings.getInt("PLANETARIUM_CACHE_MAX_BYTES", 32 * 1024 * 1024), Settings.getInt("PLANETARIUM_CACHE_TTL_MS", 300000));
+    final public static EntityCache<Moon> moonCache = CachingMoonDao.createCache(
+            Settings.getInt("PLANETARIUM_CACHE_MAX_BYTES", 32 * 1024 * 1024), Settings.getInt("PLANETARIUM_CACHE_TTL_MS", 300000));
+
+    /*
+     * Database-held images served from off-heap buffers; PLANETARIUM_IMAGE_CACHE_BYTES of 0 turns it off.
+     */
+    final public static OffHeapImageCache imageCache = new OffHeapImageCache("images",
+            Settings.getInt("PLANETARIUM_IMAGE_CACHE_BYTES", 64 * 1024 * 1024), Settings.getInt("PLANETARIUM_CACHE_TTL_MS", 300000));
+
+    final public static ImageDao imageDao = new CachingImageDao(new ImageDaoImp(), imageCache);
+    final public static ImageService imageService = new ImageServiceImp(imageDao);
+    final public static ImageController imageController = new ImageController(imageService);
+
+    final public static PlanetDao planetDao = new CachingPlanetDao(new PlanetDaoImp(), planetCache, moonCache, imageCache);
     final public static PlanetService planetService = new PlanetServiceImp(planetDao);
-    final public static PlanetController planetController = new PlanetController(planetService);
+    final public static PlanetController planetController = new PlanetController(planetService, imageService);
 
-    final public static MoonDao moonDao = new MoonDaoImp();
+    final public static MoonDao moonDao = new CachingMoonDao(new MoonDaoImp(), moonCache, imageCache);
     final public static MoonService moonService = new MoonServiceImp(moonDao);
-    final public static MoonController moonController = new MoonController(moonService);
-
-    final public static ViewController viewController = new ViewController();
+    final public static MoonController moonController = new MoonController(moonService, imageService);
+
+    final public static CatalogController catalogController = new CatalogController(planetService, moonService);
+
+    final public static AssetRegistry assetRegistry = AssetRegistry.fromClasspath();
+    final public static PageRegistry pageRegistry = PageRegistry.fromSettings(assetRegistry);
+    final public static ViewController viewController = new ViewController(pageRegistry, assetRegistry);
+
+    final public static RequestMetrics requestMetrics = new RequestMetrics();
+    final public static AdminController adminController = new AdminController(requestMetrics, sessionService,
+            Settings.getString("PLANETARIUM_ADMIN_TOKEN", ""), imageCache, planetCache, moonCache);
+
+    /*
+     * PLANETARIUM_SESSION_STORE=memory (the default) keeps sessions in this process;
+     * PLANETARIUM_SESSION_STORE=sqlite shares them through the database with every other node using
+     * it, behind a short-lived local cache. The shared store switches the database to the rollback
+     * journal (see PragmaProfile), and only SHA-256 hashes of session ids are written to it.
+     */
+    private static SessionDao createSessionDao() {
+        String store = Settings.getString("PLANETARIUM_SESSION_STORE", "memory");
+        switch (store) {
+            case "memory":
+                return new InMemorySessionDao(Settings.getInt("PLANETARIUM_SESSION_MAX", 100000));
+            case "sqlite":
+                return new CachingSessionDao(new SessionDaoImp(),
+                        Settings.getInt("PLANETARIUM_SESSION_CACHE_SIZE", 10000), Settings.getInt("PLANETARIUM_SESSION_CACHE_TTL_MS", 5000));
+            default:
+                throw new IllegalStateException("Unknown session store " + store + ", expected memory or sqlite");
+        }
+    }
 
     public static void mapRoutes(Javalin app){
 
+        // request metrics wrap every other handler, so these are registered first
+        app.before(requestMetrics::start);
+        app.after(requestMetrics::attribute);
+
         /*
          * Mapping Authentication and exception handling
          */
 
         app.before("/planetarium/*", userController::authenticateUser);
         app.before("/planetarium", userController::authenticateUser);
+        app.before("/admin/*", adminController::authorize);
         app.exception(AuthenticationFailed.class, (e, ctx) -> {
             ctx.status(401);
             ctx.result(e.getMessage());
         });
 
+        // compressed and identity responses share URLs, so shared caches must key on the encoding
+        app.after(ctx -> ctx.header(Header.VARY, Header.ACCEPT_ENCODING));
+
         // for background image
         app.get("/background", viewController::backgroundImage);
+        app.get("/assets/{file}", viewController::asset);
         
         /*
          * Mapping Pages to Javalin app
@@ -75,7 +148,10 @@ public class JavalinSetup {
         app.get("/planetarium/planet", planetController::findAll);
         app.get("/planetarium/planet/owner/{ownerId}", planetController::findAllByOwner);
         app.get("/planetarium/planet/{identifier}", planetController::findByIdentifier);
+        app.get("/planetarium/planet/{id}/image", planetController::findImage);
+        app.get("/planetarium/planet/{id}/thumbnail", planetController::findThumbnail);
         app.post("/planetarium/planet", planetController::createPlanet);
+        app.post("/planetarium/planet/bulk", planetController::createPlanets);
         app.patch("/planetarium/planet", planetController::updatePlanet);
         app.delete("/planetarium/planet/{identifier}", planetController::deletePlanet);
 
@@ -86,8 +162,32 @@ public class JavalinSetup {
         app.get("/planetarium/moon", moonController::findAll);
         app.get("/planetarium/moon/owner/{planetId}", moonController::findAllByPlanet);
         app.get("/planetarium/moon/{identifier}", moonController::findByIdentifier);
+        app.get("/planetarium/moon/{id}/image", moonController::findImage);
+        app.get("/planetarium/moon/{id}/thumbnail", moonController::findThumbnail);
         app.post("/planetarium/moon", moonController::createMoon);
+        app.post("/planetarium/moon/bulk", moonController::importMoons);
         app.delete("/planetarium/moon/{identifier}", moonController::deleteMoon);
+
+        /*
+         * Mapping Image Routes (content-addressed, so public and cacheable forever)
+         */
+
+        app.get("/images/{hash}", imageController::findImage);
+
+        /*
+         * Mapping Catalog Routes
+         */
+
+        app.get("/planetarium/catalog", catalogController::findCatalog);
+
+        /*
+         * Mapping Admin Routes
+         */
+
+        app.get("/admin/pool", adminController::poolStats);
+        app.get("/admin/cache", adminController::cacheStats);
+        app.get("/admin/threads", adminController::threadStats);
+        app.get("/admin/metrics", adminController::metrics);
     }
     
 }
@@ -0,0 +1,104 @@
+package com.revature.planetarium.utility;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.jetty.server.Request;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.planetarium.entities.Page;
+
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.json.JavalinJackson;
+
+/*
+ * Writes a JSON array with Jackson's JsonGenerator while reading its elements a keyset page at a
+ * time, so memory use does not grow with the number of rows. Each page is read with its own short
+ * query, like the chunks of an image, so no pooled connection or SQLite read transaction is held
+ * while a slow client reads; the price is that rows changed mid-response may or may not appear. The
+ * response goes out chunked, and gzipped here when the client accepts it: the response is committed
+ * before Javalin's after-handlers run, so Vary and the gzip variant's ETag must be set before the
+ * first write. Turned off with PLANETARIUM_STREAM_JSON=false, in which case the controllers build
+ * lists and call ctx.json().
+ *
+ * A page holds at most Paging.MAX_PAGE_SIZE rows, or PLANETARIUM_STREAM_IMAGE_ROWS (default 10)
+ * when rows carry their images.
+ */
+public class JsonStreams {
+
+    public static final boolean ENABLED = Settings.getBoolean("PLANETARIUM_STREAM_JSON", true);
+
+    private static final int IMAGE_ROWS = Math.max(1, Math.min(Paging.MAX_PAGE_SIZE, Settings.getInt("PLANETARIUM_STREAM_IMAGE_ROWS", 10)));
+
+    private static final ObjectMapper MAPPER = JavalinJackson.defaultMapper();
+
+    public interface PageReader<T> {
+        Page<T> read(int afterId, int limit);
+    }
+
+    /*
+     * The first page is read before anything is written, so a failing query still gets an error
+     * status. A later failure aborts the connection instead of completing the chunked body, so the
+     * client sees a broken response rather than a truncated 200 that looks complete.
+     */
+    public static <T> void writeArray(Context ctx, boolean includeImages, PageReader<T> reader) {
+        int limit = includeImages ? IMAGE_ROWS : Paging.MAX_PAGE_SIZE;
+        Page<T> page = reader.read(0, limit);
+        ctx.status(200);
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        ctx.header(Header.VARY, Header.ACCEPT_ENCODING);
+        GZIPOutputStream gzip = null;
+        JsonGenerator generator;
+        try {
+            OutputStream out = ctx.outputStream();
+            if (Compression.ENABLED && Compression.acceptsGzip(ctx)) {
+                // set before the first write, so Javalin passes the gzip bytes through untouched
+                ctx.header(Header.CONTENT_ENCODING, "gzip");
+                String etag = ctx.res().getHeader(Header.ETAG);
+                if (etag != null) {
+                    ctx.header(Header.ETAG, Compression.gzipEtag(etag));
+                }
+                gzip = Compression.gzipStream(out);
+                out = gzip;
+            }
+            generator = MAPPER.getFactory().createGenerator(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Javalin finishes and closes the response stream itself
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // an aborted response must not be completed into valid JSON on close
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        try {
+            generator.writeStartArray();
+            while (true) {
+                for (T item : page.getItems()) {
+                    generator.writeObject(item);
+                }
+                if (page.getNextCursor() == null) {
+                    break;
+                }
+                try {
+                    page = reader.read(Integer.parseInt(page.getNextCursor()), limit);
+                } catch (RuntimeException e) {
+                    System.out.println("Aborting streamed response after a failed read: " + e);
+                    Request.getBaseRequest(ctx.req()).getHttpChannel().abort(e);
+                    return;
+                }
+            }
+            generator.writeEndArray();
+            generator.close();
+            if (gzip != null) {
+                gzip.finish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.revature.planetarium.utility;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Fixed-bucket latency histogram in the Prometheus style. Recording increments one preallocated
+ * counter; quantiles are estimated at scrape time by interpolating inside the bucket that holds them,
+ * the same way histogram_quantile() does.
+ */
+public class LatencyHistogram {
+
+    public static final double[] REQUEST_BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    public static final double[] QUERY_BUCKETS = {0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 1};
+
+    private final double[] bucketSeconds;
+    private final long[] bucketNanos;
+    private final AtomicLongArray counts;
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram(double[] bucketSeconds) {
+        this.bucketSeconds = bucketSeconds;
+        this.bucketNanos = new long[bucketSeconds.length];
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            bucketNanos[i] = (long) (bucketSeconds[i] * 1_000_000_000L);
+        }
+        // the extra slot is the +Inf bucket
+        this.counts = new AtomicLongArray(bucketSeconds.length + 1);
+    }
+
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < bucketNanos.length && nanos > bucketNanos[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    public double quantile(double quantile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        double rank = quantile * total;
+        long cumulative = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            long inBucket = counts.get(i);
+            if (cumulative + inBucket >= rank && inBucket > 0) {
+                double lower = i == 0 ? 0 : bucketSeconds[i - 1];
+                return lower + (bucketSeconds[i] - lower) * (rank - cumulative) / inBucket;
+            }
+            cumulative += inBucket;
+        }
+        return bucketSeconds[bucketSeconds.length - 1];
+    }
+
+    // writes the _bucket, _sum and _count samples of one series; the caller writes the header
+    public void writeTo(PrometheusFormat out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            cumulative += counts.get(i);
+            out.sample(name + "_bucket", prefix + "le=\"" + bucketSeconds[i] + "\"", cumulative);
+        }
+        cumulative += counts.get(bucketSeconds.length);
+        out.sample(name + "_bucket", prefix + "le=\"+Inf\"", cumulative);
+        out.sample(name + "_sum", labels, sumNanos.sum() / 1e9);
+        out.sample(name + "_count", labels, cumulative);
+    }
+
+    public void writeQuantilesTo(PrometheusFormat out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (double quantile : new double[] {0.5, 0.95, 0.99}) {
+            out.sample(name, prefix + "quantile=\"" + quantile + "\"", quantile(quantile));
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.revature.planetarium.utility;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Byte-bounded LRU cache of image bytes by content hash, held outside the Java heap in one direct
+ * buffer per image, so serving a popular image neither re-reads its blob from SQLite nor allocates
+ * a heap copy of it. The least recently used images are evicted once the total size passes
+ * maxBytes; images larger than an eighth of the budget are not cached, so one upload cannot flush
+ * every other entry. A maxBytes of 0 turns the cache off.
+ *
+ * The bytes behind a hash never change, so entries only have to go when their image is deleted:
+ * the caching planet and moon DAOs invalidate the hashes of what they delete. Entries also expire
+ * after ttlMillis, which covers deletes made outside this process and a read racing a delete.
+ *
+ * get hands out read-only views; an evicted buffer stays valid for responses still writing it and
+ * its memory is released once the last of them lets go.
+ */
+public class OffHeapImageCache {
+
+    private final String name;
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    private final LinkedHashMap<String, Entry> byHash = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public OffHeapImageCache(String name, long maxBytes, long ttlMillis) {
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean admits(long size) {
+        return size > 0 && size <= maxBytes / 8;
+    }
+
+    public synchronized ByteBuffer get(String hash) {
+        Entry entry = byHash.get(hash);
+        if (entry == null || System.currentTimeMillis() > entry.expiresAt) {
+            if (entry != null) {
+                remove(hash);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.buffer.asReadOnlyBuffer();
+    }
+
+    /*
+     * Caches a buffer filled by the caller, who must not write to it afterwards, and returns a
+     * read-only view of it.
+     */
+    public synchronized ByteBuffer put(String hash, ByteBuffer buffer) {
+        buffer.clear();
+        if (!admits(buffer.capacity())) {
+            return buffer.asReadOnlyBuffer();
+        }
+        remove(hash);
+        byHash.put(hash, new Entry(buffer, System.currentTimeMillis() + ttlMillis));
+        bytes += buffer.capacity();
+        evictOverflow();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    public synchronized void invalidate(String hash) {
+        remove(hash);
+    }
+
+    public synchronized void clear() {
+        byHash.clear();
+        bytes = 0;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(name, hits, misses, evictions, byHash.size(), bytes, maxBytes);
+    }
+
+    private void remove(String hash) {
+        Entry entry = byHash.remove(hash);
+        if (entry != null) {
+            bytes -= entry.buffer.capacity();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = byHash.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            bytes -= eldest.buffer.capacity();
+            evictions++;
+        }
+    }
+
+    private static class Entry {
+        final ByteBuffer buffer;
+        final long expiresAt;
+
+        Entry(ByteBuffer buffer, long expiresAt) {
+            this.buffer = buffer;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
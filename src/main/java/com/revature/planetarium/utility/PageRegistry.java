@@ -0,0 +1,127 @@
+package com.revature.planetarium.utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import io.javalin.http.Context;
+
+/*
+ * Holds every pages/*.html file in memory, loaded once at startup together with its gzip variant
+ * and ETag, so serving a page is a map lookup. {{asset:...}} references are resolved to fingerprinted
+ * asset URLs while loading. In dev mode (PLANETARIUM_DEV_MODE) the pages are read
+ * from PLANETARIUM_PAGES_DIR instead and reloaded whenever a file in that directory changes.
+ */
+public class PageRegistry {
+
+    private final Map<String, StaticPage> pages = new ConcurrentHashMap<>();
+    private final AssetRegistry assets;
+
+    public PageRegistry(AssetRegistry assets) {
+        this.assets = assets;
+    }
+
+    public static PageRegistry fromSettings(AssetRegistry assets) {
+        PageRegistry registry = new PageRegistry(assets);
+        if (Settings.getBoolean("PLANETARIUM_DEV_MODE", false)) {
+            Path dir = Paths.get(Settings.getString("PLANETARIUM_PAGES_DIR", "src/main/resources/pages"));
+            registry.loadDirectory(dir);
+            registry.watch(dir);
+        } else {
+            registry.loadDirectory(ClasspathResources.directory("pages"));
+        }
+        return registry;
+    }
+
+    public StaticPage get(String name) {
+        return pages.get(name);
+    }
+
+    private void loadDirectory(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".html")).forEach(this::load);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load pages from " + dir + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void load(Path file) {
+        try (InputStream is = Files.newInputStream(file)) {
+            String name = file.getFileName().toString();
+            String html = assets.resolve(new String(is.readAllBytes(), StandardCharsets.UTF_8));
+            pages.put(name, new StaticPage(html.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            System.out.println("Could not load page " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void watch(Path dir) {
+        try {
+            WatchService watcher = dir.getFileSystem().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            Thread thread = new Thread(() -> {
+                try {
+                    while (true) {
+                        WatchKey key = watcher.take();
+                        for (WatchEvent<?> event : key.pollEvents()) {
+                            Path changed = dir.resolve((Path) event.context());
+                            if (changed.toString().endsWith(".html") && Files.isRegularFile(changed)) {
+                                load(changed);
+                                System.out.println("Reloaded page " + changed.getFileName());
+                            }
+                        }
+                        key.reset();
+                    }
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "page-registry-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            System.out.println("Page hot reload disabled: " + e.getMessage());
+        }
+    }
+
+    public static class StaticPage {
+
+        private final byte[] identity;
+        private final byte[] gzipped;
+        private final String etag;
+
+        StaticPage(byte[] identity) {
+            this.identity = identity;
+            this.gzipped = Compression.gzip(identity);
+            this.etag = "\"page-" + Hashing.sha256Hex(identity).substring(0, 16) + "\"";
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public int getSize() {
+            return identity.length;
+        }
+
+        public void send(Context ctx) {
+            if (HttpCaching.notModified(ctx, Compression.precompressedEtag(ctx, etag, identity, gzipped))) {
+                return;
+            }
+            Compression.sendPrecompressed(ctx, "text/html; charset=utf-8", identity, gzipped);
+            ctx.status(200);
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.revature.planetarium.utility;
+
+import io.javalin.http.Context;
+
+/*
+ * Keyset pagination parameters shared by the list routes: "after" is the cursor returned as
+ * nextCursor by the previous page (the last id seen) and "limit" is the requested page size, which
+ * the services clamp to MAX_PAGE_SIZE.
+ */
+public class Paging {
+
+    public static final int MAX_PAGE_SIZE = Settings.getInt("PLANETARIUM_MAX_PAGE_SIZE", 100);
+    public static final int DEFAULT_PAGE_SIZE = Math.min(25, MAX_PAGE_SIZE);
+
+    public static boolean isPaged(Context ctx) {
+        return ctx.queryParam("limit") != null || ctx.queryParam("after") != null;
+    }
+
+    public static int limit(Context ctx) {
+        return intParam(ctx, "limit", DEFAULT_PAGE_SIZE);
+    }
+
+    public static int after(Context ctx) {
+        int after = intParam(ctx, "after", 0);
+        if (after < 0) {
+            throw new IllegalArgumentException("after must not be negative");
+        }
+        return after;
+    }
+
+    public static boolean includeImages(Context ctx) {
+        return !"url".equals(ctx.queryParam("images"));
+    }
+
+    /*
+     * For lists that never carried image data, such as a user's planets: images stay links unless
+     * images=data asks for the bytes.
+     */
+    public static boolean imagesRequested(Context ctx) {
+        return "data".equals(ctx.queryParam("images"));
+    }
+
+    private static int intParam(Context ctx, String name, int defaultValue) {
+        String value = ctx.queryParam(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.revature.planetarium.utility;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+
+/*
+ * Counts jdk.VirtualThreadPinned JFR events, which the JVM emits when a virtual thread blocks while
+ * pinned to its carrier for longer than PLANETARIUM_PINNING_THRESHOLD_MS. Only started when virtual
+ * threads are in use. The JFR streaming API (RecordingStream, JDK 14) is looked up reflectively so
+ * the build keeps targeting Java 11; virtual threads need a JDK 21 runtime anyway.
+ */
+public class PinningMonitor {
+
+    private static final LongAdder events = new LongAdder();
+    private static final LongAdder totalNanos = new LongAdder();
+    private static final AtomicLong maxNanos = new AtomicLong();
+    private static volatile String lastFrame;
+    private static Object stream;
+
+    public static synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        try {
+            Class<?> streamType = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> settingsType = Class.forName("jdk.jfr.EventSettings");
+            Object recording = streamType.getConstructor().newInstance();
+            Object settings = streamType.getMethod("enable", String.class).invoke(recording, "jdk.VirtualThreadPinned");
+            settingsType.getMethod("withThreshold", Duration.class)
+                    .invoke(settings, Duration.ofMillis(Settings.getInt("PLANETARIUM_PINNING_THRESHOLD_MS", 20)));
+            settingsType.getMethod("withStackTrace").invoke(settings);
+            Consumer<RecordedEvent> handler = PinningMonitor::record;
+            streamType.getMethod("onEvent", String.class, Consumer.class).invoke(recording, "jdk.VirtualThreadPinned", handler);
+            streamType.getMethod("setMaxAge", Duration.class).invoke(recording, Duration.ofSeconds(10));
+            streamType.getMethod("startAsync").invoke(recording);
+            stream = recording;
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual thread pinning is not monitored: " + e);
+        }
+    }
+
+    private static void record(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        events.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            for (RecordedFrame frame : frames) {
+                // the interesting frame is the first one outside the JDK
+                String type = frame.getMethod().getType().getName();
+                if (!type.startsWith("java.") && !type.startsWith("jdk.")) {
+                    lastFrame = type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+                    break;
+                }
+            }
+        }
+    }
+
+    public static long getEvents() {
+        return events.sum();
+    }
+
+    public static long getTotalMillis() {
+        return totalNanos.sum() / 1_000_000;
+    }
+
+    public static long getMaxMillis() {
+        return maxNanos.get() / 1_000_000;
+    }
+
+    public static String getLastFrame() {
+        return lastFrame;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.revature.planetarium.utility;
+
+public class PoolStats {
+
+    private final int maxSize;
+    private final int total;
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final long acquired;
+    private final long timeouts;
+    private final long leaksDetected;
+    private final long totalWaitMicros;
+    private final long maxWaitMicros;
+
+    public PoolStats(int maxSize, int total, int active, int idle, int waiting, long acquired, long timeouts,
+                     long leaksDetected, long totalWaitMicros, long maxWaitMicros) {
+        this.maxSize = maxSize;
+        this.total = total;
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.acquired = acquired;
+        this.timeouts = timeouts;
+        this.leaksDetected = leaksDetected;
+        this.totalWaitMicros = totalWaitMicros;
+        this.maxWaitMicros = maxWaitMicros;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+    public int getTotal() {
+        return total;
+    }
+    public int getActive() {
+        return active;
+    }
+    public int getIdle() {
+        return idle;
+    }
+    public int getWaiting() {
+        return waiting;
+    }
+    public long getAcquired() {
+        return acquired;
+    }
+    public long getTimeouts() {
+        return timeouts;
+    }
+    public long getLeaksDetected() {
+        return leaksDetected;
+    }
+    public long getTotalWaitMicros() {
+        return totalWaitMicros;
+    }
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+    public long getAverageWaitMicros() {
+        long attempts = acquired + timeouts;
+        return attempts == 0 ? 0 : totalWaitMicros / attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats [maxSize=" + maxSize + ", total=" + total + ", active=" + active + ", idle=" + idle
+                + ", waiting=" + waiting + ", acquired=" + acquired + ", timeouts=" + timeouts
+                + ", leaksDetected=" + leaksDetected + ", maxWaitMicros=" + maxWaitMicros + "]";
+    }
+
+}
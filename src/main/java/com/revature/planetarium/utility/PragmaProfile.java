@@ -0,0 +1,83 @@
+package com.revature.planetarium.utility;
+
+import java.util.Arrays;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.Pragma;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.sqlite.SQLiteConfig.TempStore;
+
+/*
+ * SQLite pragma presets applied to every pooled connection. All profiles run in WAL mode so readers
+ * keep being served while a writer commits; they differ in how much memory they trade for read speed
+ * and how hard they fsync. Pick one with PLANETARIUM_DB_PROFILE and override single pragmas with the
+ * PLANETARIUM_DB_* settings read in apply(). Unknown names are rejected with the allowed values;
+ * validateSettings() checks them all before the first connection is opened.
+ *
+ * WAL keeps its index in shared memory, so it only works for processes on one host. With
+ * PLANETARIUM_SESSION_STORE=sqlite the database is meant to be shared between nodes, typically over
+ * a network filesystem, so every profile then defaults to the rollback journal (DELETE) with mmap
+ * off. Setting PLANETARIUM_DB_JOURNAL_MODE=WAL explicitly is only safe when all nodes share a host.
+ */
+public enum PragmaProfile {
+
+    BALANCED(JournalMode.WAL, SynchronousMode.NORMAL, -16000, 64L * 1024 * 1024, TempStore.MEMORY, 5000),
+    READ_OPTIMIZED(JournalMode.WAL, SynchronousMode.NORMAL, -64000, 256L * 1024 * 1024, TempStore.MEMORY, 5000),
+    DURABLE(JournalMode.WAL, SynchronousMode.FULL, -8000, 0, TempStore.DEFAULT, 10000);
+
+    private final JournalMode journalMode;
+    private final SynchronousMode synchronous;
+    private final int cacheSize;
+    private final long mmapSize;
+    private final TempStore tempStore;
+    private final int busyTimeout;
+
+    PragmaProfile(JournalMode journalMode, SynchronousMode synchronous, int cacheSize, long mmapSize,
+                  TempStore tempStore, int busyTimeout) {
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.tempStore = tempStore;
+        this.busyTimeout = busyTimeout;
+    }
+
+    public static PragmaProfile fromSettings() {
+        return enumSetting("PLANETARIUM_DB_PROFILE", PragmaProfile.class, BALANCED);
+    }
+
+    /*
+     * Resolves the profile and every override, so Main fails at startup with an IllegalStateException
+     * naming the bad setting rather than when the first query opens the pool.
+     */
+    public static void validateSettings() {
+        fromSettings().apply(new SQLiteConfig());
+    }
+
+    public void apply(SQLiteConfig config) {
+        boolean shared = "sqlite".equals(Settings.getString("PLANETARIUM_SESSION_STORE", "memory"));
+        config.setJournalMode(enumSetting("PLANETARIUM_DB_JOURNAL_MODE", JournalMode.class, shared ? JournalMode.DELETE : journalMode));
+        config.setSynchronous(enumSetting("PLANETARIUM_DB_SYNCHRONOUS", SynchronousMode.class, synchronous));
+        config.setCacheSize(Settings.getInt("PLANETARIUM_DB_CACHE_SIZE", cacheSize));
+        String mmap = Settings.getString("PLANETARIUM_DB_MMAP_SIZE", String.valueOf(shared ? 0 : mmapSize));
+        try {
+            Long.parseLong(mmap);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("PLANETARIUM_DB_MMAP_SIZE must be a number of bytes, not " + mmap);
+        }
+        config.setPragma(Pragma.MMAP_SIZE, mmap);
+        config.setTempStore(enumSetting("PLANETARIUM_DB_TEMP_STORE", TempStore.class, tempStore));
+        config.setBusyTimeout(Settings.getInt("PLANETARIUM_DB_BUSY_TIMEOUT", busyTimeout));
+    }
+
+    private static <E extends Enum<E>> E enumSetting(String name, Class<E> type, E defaultValue) {
+        String value = Settings.getString(name, defaultValue.name());
+        try {
+            return Enum.valueOf(type, value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(name + " must be one of " + Arrays.toString(type.getEnumConstants()) + ", not " + value);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.revature.planetarium.utility;
+
+/*
+ * Builds a response in the Prometheus text exposition format (version 0.0.4).
+ */
+public class PrometheusFormat {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder text = new StringBuilder(16 * 1024);
+
+    public void header(String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    public void sample(String name, String labels, long value) {
+        appendName(name, labels);
+        text.append(value).append('\n');
+    }
+
+    public void sample(String name, String labels, double value) {
+        appendName(name, labels);
+        text.append(value).append('\n');
+    }
+
+    private void appendName(String name, String labels) {
+        text.append(name);
+        if (!labels.isEmpty()) {
+            text.append('{').append(labels).append('}');
+        }
+        text.append(' ');
+    }
+
+    public static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+}
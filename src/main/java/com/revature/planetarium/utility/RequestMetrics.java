@@ -0,0 +1,161 @@
+package com.revature.planetarium.utility;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.RequestLog;
+import org.eclipse.jetty.server.Response;
+
+import io.javalin.event.HandlerMetaInfo;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+
+/*
+ * Per-route request counters, latency histograms and response sizes. Routes are registered as
+ * JavalinSetup adds them, so every route is exported from the start. A request is attributed to its
+ * route in an after handler and recorded by Jetty's request log once the response is complete,
+ * which also covers streamed bodies. Recording only updates preallocated atomic counters.
+ */
+public class RequestMetrics implements RequestLog {
+
+    private static final String UNMATCHED = "unmatched";
+    private static final String IN_FLIGHT = "planetarium.metrics.inFlight";
+    private static final String ROUTE = "planetarium.metrics.route";
+
+    private final Map<HandlerType, ConcurrentHashMap<String, RouteMetrics>> routes = new EnumMap<>(HandlerType.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public RequestMetrics() {
+        // every method gets its map up front so the EnumMap itself is never modified concurrently
+        for (HandlerType method : HandlerType.values()) {
+            routes.put(method, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void register(HandlerMetaInfo handler) {
+        if (handler.getHttpMethod().isHttpMethod()) {
+            route(handler.getHttpMethod(), handler.getPath());
+        }
+    }
+
+    // registered as the first before handler
+    public void start(Context ctx) {
+        inFlight.incrementAndGet();
+        ctx.req().setAttribute(IN_FLIGHT, Boolean.TRUE);
+    }
+
+    /*
+     * Registered as an after handler, which runs whether or not the endpoint threw. Requests that
+     * never reached a registered endpoint (404s, or a 401 from the authentication filter) are counted
+     * under a single "unmatched" route so unknown paths cannot grow the label set.
+     */
+    public void attribute(Context ctx) {
+        RouteMetrics route = routes.get(ctx.method()).get(ctx.endpointHandlerPath());
+        ctx.req().setAttribute(ROUTE, route != null ? route : route(ctx.method(), UNMATCHED));
+    }
+
+    @Override
+    public void log(Request request, Response response) {
+        if (request.getAttribute(IN_FLIGHT) != null) {
+            inFlight.decrementAndGet();
+        }
+        Object route = request.getAttribute(ROUTE);
+        if (route instanceof RouteMetrics) {
+            long nanos = System.nanoTime() - request.getBeginNanoTime();
+            ((RouteMetrics) route).record(response.getStatus(), nanos, response.getHttpChannel().getBytesWritten());
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private RouteMetrics route(HandlerType method, String path) {
+        ConcurrentHashMap<String, RouteMetrics> byPath = routes.get(method);
+        RouteMetrics route = byPath.get(path);
+        return route != null ? route : byPath.computeIfAbsent(path, p -> new RouteMetrics(method.name(), p));
+    }
+
+    public void writeTo(PrometheusFormat out) {
+        out.header("planetarium_http_requests_in_flight", "gauge", "Requests currently being handled.");
+        out.sample("planetarium_http_requests_in_flight", "", inFlight.get());
+
+        out.header("planetarium_http_requests_total", "counter", "Completed requests by route, method and status.");
+        for (RouteMetrics route : allRoutes()) {
+            for (int status = 0; status < RouteMetrics.STATUS_CODES; status++) {
+                long count = route.statuses.get(status);
+                if (count > 0) {
+                    out.sample("planetarium_http_requests_total", route.labels + ",status=\"" + status + "\"", count);
+                }
+            }
+        }
+
+        out.header("planetarium_http_request_duration_seconds", "histogram", "Time from request start until the response was complete.");
+        for (RouteMetrics route : allRoutes()) {
+            route.latency.writeTo(out, "planetarium_http_request_duration_seconds", route.labels);
+        }
+
+        out.header("planetarium_http_request_duration_quantile_seconds", "gauge", "Latency quantiles estimated from the duration histogram.");
+        for (RouteMetrics route : allRoutes()) {
+            route.latency.writeQuantilesTo(out, "planetarium_http_request_duration_quantile_seconds", route.labels);
+        }
+
+        out.header("planetarium_http_response_size_bytes", "summary", "Bytes written per response, after compression.");
+        for (RouteMetrics route : allRoutes()) {
+            out.sample("planetarium_http_response_size_bytes_sum", route.labels, route.bytes.sum());
+            out.sample("planetarium_http_response_size_bytes_count", route.labels, route.count.sum());
+        }
+        out.header("planetarium_http_response_size_max_bytes", "gauge", "Largest response written per route.");
+        for (RouteMetrics route : allRoutes()) {
+            out.sample("planetarium_http_response_size_max_bytes", route.labels, route.maxBytes.get());
+        }
+    }
+
+    private List<RouteMetrics> allRoutes() {
+        List<RouteMetrics> all = new ArrayList<>();
+        for (ConcurrentHashMap<String, RouteMetrics> byPath : routes.values()) {
+            all.addAll(byPath.values());
+        }
+        all.sort((a, b) -> a.labels.compareTo(b.labels));
+        return all;
+    }
+
+    static class RouteMetrics {
+
+        static final int STATUS_CODES = 600;
+
+        final String labels;
+        final AtomicLongArray statuses = new AtomicLongArray(STATUS_CODES);
+        final LatencyHistogram latency = new LatencyHistogram(LatencyHistogram.REQUEST_BUCKETS);
+        final LongAdder count = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final AtomicLong maxBytes = new AtomicLong();
+
+        RouteMetrics(String method, String route) {
+            this.labels = "method=\"" + method + "\",route=\"" + PrometheusFormat.escape(route) + "\"";
+        }
+
+        void record(int status, long nanos, long written) {
+            if (status >= 0 && status < STATUS_CODES) {
+                statuses.incrementAndGet(status);
+            }
+            latency.record(nanos);
+            count.increment();
+            bytes.add(written);
+            long max = maxBytes.get();
+            while (written > max && !maxBytes.compareAndSet(max, written)) {
+                max = maxBytes.get();
+            }
+        }
+
+    }
+
+}
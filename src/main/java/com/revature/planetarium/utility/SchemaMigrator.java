@@ -0,0 +1,116 @@
+package com.revature.planetarium.utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Applies the versioned scripts under db/migration in order, recording each applied version in the
+ * schema_version table so every script runs exactly once per database. To ship a schema change, add a
+ * new V<n>__<description>.sql file and append it to MIGRATIONS.
+ */
+public class SchemaMigrator {
+
+    private static final String[] MIGRATIONS = {
+        "V1__lookup_indexes.sql",
+        "V2__data_versions.sql",
+        "V3__sessions.sql",
+        "V4__thumbnails.sql",
+        "V5__content_addressed_images.sql",
+        "V6__image_files.sql",
+        "V7__hashed_session_ids.sql",
+        "V8__thumbnail_skips.sql"
+    };
+
+    public static void migrate() {
+        PragmaProfile.validateSettings();
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("create table if not exists schema_version(version integer primary key, "
+                        + "description text not null, applied_at text not null default current_timestamp)");
+            }
+            int current = currentVersion(conn);
+            for (String script : MIGRATIONS) {
+                int version = versionOf(script);
+                if (version > current) {
+                    apply(conn, version, script);
+                    current = version;
+                }
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Database migration failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select coalesce(max(version), 0) from schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection conn, int version, String script) throws SQLException, IOException {
+        conn.setAutoCommit(false);
+        try {
+            for (String sql : loadStatements(script)) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("insert into schema_version (version, description) values (?, ?)")) {
+                stmt.setInt(1, version);
+                stmt.setString(2, script);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Applied database migration " + script);
+        } catch (SQLException | IOException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static List<String> loadStatements(String script) throws IOException {
+        try (InputStream is = SchemaMigrator.class.getClassLoader().getResourceAsStream("db/migration/" + script)) {
+            if (is == null) {
+                throw new IOException("Missing migration script " + script);
+            }
+            // statements end with a line ending in ';', except inside a trigger's begin ... end block
+            List<String> statements = new ArrayList<>();
+            StringBuilder sql = new StringBuilder();
+            boolean inBlock = false;
+            for (String line : new String(is.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                String trimmed = line.trim().toLowerCase();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                sql.append(line).append('\n');
+                if (trimmed.equals("begin") || trimmed.endsWith(" begin")) {
+                    inBlock = true;
+                } else if (inBlock ? trimmed.equals("end;") : trimmed.endsWith(";")) {
+                    inBlock = false;
+                    statements.add(sql.toString().trim());
+                    sql.setLength(0);
+                }
+            }
+            if (sql.length() > 0) {
+                statements.add(sql.toString().trim());
+            }
+            return statements;
+        }
+    }
+
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.revature.planetarium.utility;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import io.javalin.config.JavalinConfig;
+import io.javalin.util.ConcurrencyUtil;
+
+/*
+ * Chooses how Jetty runs request handlers. With PLANETARIUM_VIRTUAL_THREADS every request gets its
+ * own virtual thread, which needs Java 21; older JVMs fall back to the platform thread pool sized by
+ * PLANETARIUM_MIN_THREADS and PLANETARIUM_MAX_THREADS.
+ *
+ * SQLite work runs in native code and inside the driver's synchronized methods, both of which pin a
+ * virtual thread to its carrier. DatabaseConnector therefore keeps concurrent database access below
+ * the number of carriers (see dbMaxConcurrency) so requests that do not touch the database always
+ * find a free carrier, and PinningMonitor reports the pinning that still happens.
+ */
+public class ServerThreads {
+
+    public static final boolean VIRTUAL_THREADS_REQUESTED = Settings.getBoolean("PLANETARIUM_VIRTUAL_THREADS", false);
+
+    private static volatile ThreadPool threadPool;
+
+    public static boolean virtualThreadsEnabled() {
+        return VIRTUAL_THREADS_REQUESTED && ConcurrencyUtil.isLoomAvailable();
+    }
+
+    public static void configure(JavalinConfig config) {
+        if (VIRTUAL_THREADS_REQUESTED && !virtualThreadsEnabled()) {
+            System.out.println("Virtual threads need Java 21 or later; serving requests on platform threads");
+        }
+        boolean virtual = virtualThreadsEnabled();
+        int minThreads = Settings.getInt("PLANETARIUM_MIN_THREADS", 8);
+        int maxThreads = Settings.getInt("PLANETARIUM_MAX_THREADS", 250);
+        threadPool = ConcurrencyUtil.jettyThreadPool("JettyServerThreadPool", minThreads, maxThreads, virtual);
+        config.jetty.threadPool = threadPool;
+        config.useVirtualThreads = virtual;
+        if (virtual) {
+            PinningMonitor.start();
+        }
+        System.out.println("Serving requests on " + (virtual ? "virtual threads" : "platform threads, max " + maxThreads));
+    }
+
+    /*
+     * Virtual threads are multiplexed onto jdk.virtualThreadScheduler.parallelism carriers (one per
+     * core by default). One carrier is left free of database work.
+     */
+    public static int dbMaxConcurrency(int poolSize) {
+        if (!virtualThreadsEnabled()) {
+            return poolSize;
+        }
+        int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+        int limit = Settings.getInt("PLANETARIUM_DB_MAX_CONCURRENCY", Math.max(1, carriers - 1));
+        return Math.max(1, Math.min(poolSize, limit));
+    }
+
+    /*
+     * The server thread fields are -1 under virtual threads whatever pool Jetty was given: a
+     * QueuedThreadPool there would only count the threads that hand requests to virtual threads, not
+     * the requests being served.
+     */
+    public static ThreadStats getStats() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int serverThreads = -1;
+        int busyServerThreads = -1;
+        int idleServerThreads = -1;
+        int maxServerThreads = -1;
+        if (!virtualThreadsEnabled() && threadPool instanceof QueuedThreadPool) {
+            QueuedThreadPool pool = (QueuedThreadPool) threadPool;
+            serverThreads = pool.getThreads();
+            busyServerThreads = pool.getBusyThreads();
+            idleServerThreads = pool.getIdleThreads();
+            maxServerThreads = pool.getMaxThreads();
+        }
+        return new ThreadStats(virtualThreadsEnabled(), threads.getThreadCount(), threads.getPeakThreadCount(),
+                threads.getDaemonThreadCount(), serverThreads, busyServerThreads, idleServerThreads, maxServerThreads,
+                DatabaseConnector.getPoolStats().getMaxSize(), PinningMonitor.getEvents(), PinningMonitor.getTotalMillis(),
+                PinningMonitor.getMaxMillis(), PinningMonitor.getLastFrame());
+    }
+
+}
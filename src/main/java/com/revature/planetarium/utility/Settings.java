@@ -0,0 +1,41 @@
+package com.revature.planetarium.utility;
+
+/*
+ * Reads startup settings from environment variables, falling back to a JVM system property
+ * with the same name (handy for -D flags when running from an IDE) and then to a default.
+ */
+public class Settings {
+
+    public static String getString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            value = System.getProperty(name);
+        }
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        String value = getString(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.out.println("Ignoring invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = getString(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.equalsIgnoreCase("true") || value.equals("1") || value.equalsIgnoreCase("yes");
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.revature.planetarium.utility;
+
+import java.sql.SQLException;
+
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+/*
+ * Recognizes constraint violations raised by SQLite so the DAOs can let a single INSERT or UPDATE
+ * enforce uniqueness (through the unique name indexes added by migration V1) instead of reading first.
+ */
+public class SqlConstraints {
+
+    public static boolean isUniqueViolation(SQLException e) {
+        if (e instanceof SQLiteException) {
+            SQLiteErrorCode code = ((SQLiteException) e).getResultCode();
+            return code == SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE || code == SQLiteErrorCode.SQLITE_CONSTRAINT_PRIMARYKEY;
+        }
+        return false;
+    }
+
+}
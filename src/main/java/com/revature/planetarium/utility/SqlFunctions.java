@@ -0,0 +1,32 @@
+package com.revature.planetarium.utility;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.sqlite.Function;
+
+/*
+ * Application-defined SQL functions, registered on every physical connection the pool opens.
+ * sha256(blob) returns the lowercase hex digest Hashing.sha256Hex computes, which lets migrations
+ * derive content hashes for images already stored in the database.
+ */
+public class SqlFunctions {
+
+    public static void register(Connection conn) throws SQLException {
+        Function.create(conn, "sha256", new Sha256(), 1, Function.FLAG_DETERMINISTIC);
+    }
+
+    private static class Sha256 extends Function {
+
+        @Override
+        protected void xFunc() throws SQLException {
+            byte[] content = value_blob(0);
+            if (content == null) {
+                result();
+            } else {
+                result(Hashing.sha256Hex(content));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.revature.planetarium.utility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * Helpers for set-based queries of the form "... WHERE name IN (?, ?, ...)". Values are bound in
+ * chunks so a large bulk request stays well under SQLite's host parameter limit.
+ */
+public class SqlLists {
+
+    public static final int CHUNK_SIZE = 500;
+
+    public static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.toString();
+    }
+
+    public static <T> List<List<T>> chunks(Collection<T> values, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(Math.min(size, values.size()));
+        for (T value : values) {
+            chunk.add(value);
+            if (chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(size);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.revature.planetarium.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/*
+ * Statement timings aggregated by SQL shape: whitespace is collapsed, literals become ? and IN lists
+ * of any length collapse to IN (?...), so the chunked bulk lookups share one series. Time is the time
+ * spent inside JDBC calls (execute plus ResultSet.next()), not the time the DAO spends between rows.
+ * Also keeps the histogram of how long callers waited for a pooled connection.
+ */
+public class SqlMetrics {
+
+    public static final boolean ENABLED = Settings.getBoolean("PLANETARIUM_SQL_METRICS", true);
+
+    private static final int MAX_SHAPES = 500;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN ?\\((?:\\? ?, ?)*\\?\\)");
+
+    // raw statement text to its shape's stats; DAO statements are constants, so this stays small
+    private static final Map<String, ShapeStats> bySql = new ConcurrentHashMap<>();
+    private static final Map<String, ShapeStats> byShape = new ConcurrentHashMap<>();
+    private static final ShapeStats overflow = new ShapeStats("other");
+    private static final LatencyHistogram acquire = new LatencyHistogram(LatencyHistogram.QUERY_BUCKETS);
+
+    public static ShapeStats forSql(String sql) {
+        if (sql == null) {
+            return overflow;
+        }
+        ShapeStats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String shape = shape(sql);
+        stats = byShape.get(shape);
+        if (stats == null) {
+            if (byShape.size() >= MAX_SHAPES) {
+                return overflow;
+            }
+            stats = byShape.computeIfAbsent(shape, ShapeStats::new);
+        }
+        if (bySql.size() < MAX_SHAPES * 4) {
+            bySql.put(sql, stats);
+        }
+        return stats;
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("IN (?...)");
+    }
+
+    public static void recordAcquire(long nanos) {
+        acquire.record(nanos);
+    }
+
+    public static void writeTo(PrometheusFormat out) {
+        List<ShapeStats> shapes = new ArrayList<>(byShape.values());
+        if (overflow.executions.sum() > 0) {
+            shapes.add(overflow);
+        }
+        shapes.sort((a, b) -> a.labels.compareTo(b.labels));
+
+        out.header("planetarium_db_pool_acquire_seconds", "histogram", "Time spent waiting for a pooled connection.");
+        acquire.writeTo(out, "planetarium_db_pool_acquire_seconds", "");
+
+        out.header("planetarium_sql_duration_seconds", "histogram", "Time spent in JDBC calls per statement execution.");
+        for (ShapeStats stats : shapes) {
+            stats.latency.writeTo(out, "planetarium_sql_duration_seconds", stats.labels);
+        }
+        out.header("planetarium_sql_duration_quantile_seconds", "gauge", "Statement latency quantiles estimated from the histogram.");
+        for (ShapeStats stats : shapes) {
+            stats.latency.writeQuantilesTo(out, "planetarium_sql_duration_quantile_seconds", stats.labels);
+        }
+        out.header("planetarium_sql_rows_total", "counter", "Rows read from result sets or changed by updates.");
+        for (ShapeStats stats : shapes) {
+            out.sample("planetarium_sql_rows_total", stats.labels, stats.rows.sum());
+        }
+        out.header("planetarium_sql_blob_read_bytes_total", "counter", "BLOB bytes read through getBytes().");
+        for (ShapeStats stats : shapes) {
+            out.sample("planetarium_sql_blob_read_bytes_total", stats.labels, stats.blobBytes.sum());
+        }
+        out.header("planetarium_sql_errors_total", "counter", "Executions that threw an SQLException.");
+        for (ShapeStats stats : shapes) {
+            out.sample("planetarium_sql_errors_total", stats.labels, stats.errors.sum());
+        }
+    }
+
+    public static class ShapeStats {
+
+        final String labels;
+        final LatencyHistogram latency = new LatencyHistogram(LatencyHistogram.QUERY_BUCKETS);
+        final LongAdder executions = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder blobBytes = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        ShapeStats(String shape) {
+            this.labels = "sql=\"" + PrometheusFormat.escape(shape) + "\"";
+        }
+
+        void record(long nanos, long rowCount, long blobByteCount, boolean failed) {
+            executions.increment();
+            latency.record(nanos);
+            rows.add(rowCount);
+            blobBytes.add(blobByteCount);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.revature.planetarium.utility;
+
+/*
+ * Server thread usage. ServerThreads.getStats reports the server thread fields as -1 when requests
+ * run on virtual threads, which have no fixed pool to report on.
+ */
+public class ThreadStats {
+
+    private final boolean virtualThreads;
+    private final int jvmThreads;
+    private final int peakJvmThreads;
+    private final int daemonThreads;
+    private final int serverThreads;
+    private final int busyServerThreads;
+    private final int idleServerThreads;
+    private final int maxServerThreads;
+    private final int dbMaxConcurrency;
+    private final long pinnedEvents;
+    private final long pinnedTotalMillis;
+    private final long pinnedMaxMillis;
+    private final String lastPinnedFrame;
+
+    public ThreadStats(boolean virtualThreads, int jvmThreads, int peakJvmThreads, int daemonThreads, int serverThreads,
+                       int busyServerThreads, int idleServerThreads, int maxServerThreads, int dbMaxConcurrency,
+                       long pinnedEvents, long pinnedTotalMillis, long pinnedMaxMillis, String lastPinnedFrame) {
+        this.virtualThreads = virtualThreads;
+        this.jvmThreads = jvmThreads;
+        this.peakJvmThreads = peakJvmThreads;
+        this.daemonThreads = daemonThreads;
+        this.serverThreads = serverThreads;
+        this.busyServerThreads = busyServerThreads;
+        this.idleServerThreads = idleServerThreads;
+        this.maxServerThreads = maxServerThreads;
+        this.dbMaxConcurrency = dbMaxConcurrency;
+        this.pinnedEvents = pinnedEvents;
+        this.pinnedTotalMillis = pinnedTotalMillis;
+        this.pinnedMaxMillis = pinnedMaxMillis;
+        this.lastPinnedFrame = lastPinnedFrame;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+    public int getJvmThreads() {
+        return jvmThreads;
+    }
+    public int getPeakJvmThreads() {
+        return peakJvmThreads;
+    }
+    public int getDaemonThreads() {
+        return daemonThreads;
+    }
+    public int getServerThreads() {
+        return serverThreads;
+    }
+    public int getBusyServerThreads() {
+        return busyServerThreads;
+    }
+    public int getIdleServerThreads() {
+        return idleServerThreads;
+    }
+    public int getMaxServerThreads() {
+        return maxServerThreads;
+    }
+    public int getDbMaxConcurrency() {
+        return dbMaxConcurrency;
+    }
+    public long getPinnedEvents() {
+        return pinnedEvents;
+    }
+    public long getPinnedTotalMillis() {
+        return pinnedTotalMillis;
+    }
+    public long getPinnedMaxMillis() {
+        return pinnedMaxMillis;
+    }
+    public String getLastPinnedFrame() {
+        return lastPinnedFrame;
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadStats [virtualThreads=" + virtualThreads + ", jvmThreads=" + jvmThreads + ", busyServerThreads="
+                + busyServerThreads + ", dbMaxConcurrency=" + dbMaxConcurrency + ", pinnedEvents=" + pinnedEvents + "]";
+    }
+
+}
@@ -0,0 +1,371 @@
+package com.revature.planetarium.utility;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/*
+ * Generates downscaled copies of planet and moon images with ImageIO and stores them in the
+ * planet_thumbnails and moon_thumbnails tables (migration V4). The DAOs schedule a job after storing
+ * an image; jobs run on a small bounded executor and are dropped rather than queued without limit
+ * when it is full, so an upload never waits for thumbnails. Images without thumbnails, dropped
+ * jobs included, are picked up by backfill() on the next start, and until then the thumbnail routes
+ * fall back to the full image.
+ *
+ * PLANETARIUM_THUMBNAIL_SIZES lists the sizes (longer edge in pixels, default 64,256); an empty
+ * value turns thumbnails off. Images larger than PLANETARIUM_THUMBNAIL_MAX_PIXELS (default 40
+ * million) get no thumbnails. Images that are undecodable or too large are recorded in
+ * thumbnail_skips (migration V8), so backfill() does not decode them again on every start.
+ */
+public class Thumbnailer {
+
+    public enum Kind {
+        PLANET("planets", "planet_thumbnails", "planetId"),
+        MOON("moons", "moon_thumbnails", "moonId");
+
+        private final String table;
+        private final String thumbnailTable;
+        private final String idColumn;
+
+        Kind(String table, String thumbnailTable, String idColumn) {
+            this.table = table;
+            this.thumbnailTable = thumbnailTable;
+            this.idColumn = idColumn;
+        }
+    }
+
+    public static final int[] SIZES = parseSizes(Settings.getString("PLANETARIUM_THUMBNAIL_SIZES", "64,256"));
+
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final int BACKFILL_BATCH = 100;
+    private static final long MAX_PIXELS = Settings.getInt("PLANETARIUM_THUMBNAIL_MAX_PIXELS", 40_000_000);
+
+    private static final AtomicLong generated = new AtomicLong();
+    private static final AtomicLong undecodable = new AtomicLong();
+    private static final AtomicLong oversized = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+
+    private static final ThreadPoolExecutor executor = createExecutor(
+            Settings.getInt("PLANETARIUM_THUMBNAIL_THREADS", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+            Settings.getInt("PLANETARIUM_THUMBNAIL_QUEUE", 1000));
+
+    public static boolean isEnabled() {
+        return SIZES.length > 0;
+    }
+
+    /*
+     * The smallest configured size that is at least the requested one, or the largest size when
+     * none is. A request without a size gets the largest.
+     */
+    public static int sizeFor(Integer requested) {
+        if (requested == null) {
+            return SIZES[SIZES.length - 1];
+        }
+        for (int size : SIZES) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return SIZES[SIZES.length - 1];
+    }
+
+    public static void schedule(Kind kind, int id, byte[] image) {
+        if (!isEnabled() || image == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> generate(kind, id, image));
+        } catch (RejectedExecutionException e) {
+            if (dropped.incrementAndGet() % 100 == 1) {
+                System.out.println("Thumbnail queue full, dropped " + dropped.get() + " jobs so far; they are retried on the next start");
+            }
+        }
+    }
+
+    /*
+     * Queues one job that walks every stored image lacking thumbnails, in id order and a batch at a
+     * time, so it occupies a single worker however many images are missing.
+     */
+    public static void backfill() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                for (Kind kind : Kind.values()) {
+                    backfill(kind);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.out.println("Thumbnail backfill not started: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Pages through the ids and hashes still lacking thumbnails, then loads and renders their images
+     * one at a time, so the job never holds more than one full image or keeps a connection open
+     * while it renders.
+     */
+    private static void backfill(Kind kind) {
+        String sql = "SELECT o.id, o.imageHash FROM " + kind.table + " o WHERE o.id > ? AND o.imageHash IS NOT NULL"
+                + " AND NOT EXISTS (SELECT 1 FROM " + kind.thumbnailTable + " t WHERE t." + kind.idColumn + " = o.id)"
+                + " AND NOT EXISTS (SELECT 1 FROM thumbnail_skips s WHERE s.imageHash = o.imageHash"
+                + " AND (s.reason = 'undecodable' OR s.maxPixels >= ?))"
+                + " ORDER BY o.id LIMIT ?";
+        int afterId = 0;
+        while (true) {
+            Map<Integer, String> batch = new LinkedHashMap<>();
+            try (Connection conn = DatabaseConnector.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, afterId);
+                stmt.setLong(2, MAX_PIXELS);
+                stmt.setInt(3, BACKFILL_BATCH);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        batch.put(rs.getInt("id"), rs.getString("imageHash"));
+                    }
+                }
+            } catch (SQLException e) {
+                System.out.println(e);
+                return;
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<Integer, String> entry : batch.entrySet()) {
+                afterId = entry.getKey();
+                byte[] image;
+                try {
+                    image = readImage(entry.getValue());
+                } catch (SQLException e) {
+                    failed.incrementAndGet();
+                    System.out.println("Thumbnail backfill could not read " + kind.table + " " + entry.getKey() + ": " + e);
+                    continue;
+                }
+                // a null image was deleted since the page was read
+                if (image != null) {
+                    generate(kind, entry.getKey(), image);
+                }
+            }
+        }
+    }
+
+    private static byte[] readImage(String hash) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT hash AS imageHash, image FROM images WHERE hash = ?")) {
+            stmt.setString(1, hash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? ImageFiles.imageBytes(rs) : null;
+            }
+        }
+    }
+
+    private static void generate(Kind kind, int id, byte[] image) {
+        try {
+            Map<Integer, byte[]> thumbnails = render(image, SIZES);
+            if (thumbnails == null) {
+                oversized.incrementAndGet();
+                skip(Hashing.sha256Hex(image), "oversized");
+                return;
+            }
+            if (thumbnails.isEmpty()) {
+                undecodable.incrementAndGet();
+                skip(Hashing.sha256Hex(image), "undecodable");
+                return;
+            }
+            store(kind, id, Hashing.sha256Hex(image), thumbnails);
+            generated.incrementAndGet();
+        } catch (IOException | SQLException | RuntimeException e) {
+            failed.incrementAndGet();
+            System.out.println("Thumbnail generation failed for " + kind.table + " " + id + ": " + e);
+        }
+    }
+
+    /*
+     * Inserts only while the owner still references the same image, so a job that finishes after its
+     * planet or moon was deleted (and the id reused) writes nothing.
+     */
+    private static void store(Kind kind, int id, String imageHash, Map<Integer, byte[]> thumbnails) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO " + kind.thumbnailTable + " (" + kind.idColumn + ", size, image)"
+                + " SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM " + kind.table + " WHERE id = ? AND imageHash = ?)";
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Integer, byte[]> thumbnail : thumbnails.entrySet()) {
+                    stmt.setInt(1, id);
+                    stmt.setInt(2, thumbnail.getKey());
+                    stmt.setBytes(3, thumbnail.getValue());
+                    stmt.setInt(4, id);
+                    stmt.setString(5, imageHash);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    // records the outcome only while the image still exists, since its row may be deleted meanwhile
+    private static void skip(String imageHash, String reason) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO thumbnail_skips (imageHash, reason, maxPixels)"
+                + " SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM images WHERE hash = ?)";
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, imageHash);
+            stmt.setString(2, reason);
+            stmt.setLong(3, MAX_PIXELS);
+            stmt.setString(4, imageHash);
+            stmt.executeUpdate();
+        }
+    }
+
+    /*
+     * Returns one encoded thumbnail per size, nothing when ImageIO cannot decode the image, or null
+     * when its header declares more than MAX_PIXELS pixels; that is checked before any pixel is
+     * decoded, since a small compressed upload can declare a bitmap of gigabytes. An image that
+     * already fits a size is kept as it is. Scaling halves the image step by step before the final
+     * bilinear pass, which avoids the aliasing of a single large bilinear reduction.
+     */
+    static Map<Integer, byte[]> render(byte[] image, int[] sizes) throws IOException {
+        Map<Integer, byte[]> thumbnails = new LinkedHashMap<>();
+        BufferedImage source;
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return thumbnails;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    return null;
+                }
+                source = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+        boolean alpha = source.getColorModel().hasAlpha();
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        for (int size : sizes) {
+            if (longest <= size) {
+                thumbnails.put(size, image);
+                continue;
+            }
+            double scale = (double) size / longest;
+            int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+            thumbnails.put(size, encode(downscale(source, width, height, alpha), alpha));
+        }
+        return thumbnails;
+    }
+
+    private static BufferedImage downscale(BufferedImage source, int width, int height, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, boolean alpha) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (alpha) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static int[] parseSizes(String value) {
+        List<Integer> sizes = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                int size = Integer.parseInt(part.trim());
+                if (size < 1) {
+                    throw new IllegalStateException("Thumbnail sizes must be positive: " + value);
+                }
+                sizes.add(size);
+            }
+        }
+        return sizes.stream().mapToInt(Integer::intValue).distinct().sorted().toArray();
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads, int queueSize) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnailer-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        // idle workers exit, so a node that stores no images keeps no thumbnail threads
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public static void writeTo(PrometheusFormat out) {
+        out.header("planetarium_thumbnail_jobs_total", "counter", "Thumbnail jobs by outcome.");
+        out.sample("planetarium_thumbnail_jobs_total", "result=\"generated\"", generated.get());
+        out.sample("planetarium_thumbnail_jobs_total", "result=\"undecodable\"", undecodable.get());
+        out.sample("planetarium_thumbnail_jobs_total", "result=\"oversized\"", oversized.get());
+        out.sample("planetarium_thumbnail_jobs_total", "result=\"dropped\"", dropped.get());
+        out.sample("planetarium_thumbnail_jobs_total", "result=\"failed\"", failed.get());
+        out.header("planetarium_thumbnail_queue_depth", "gauge", "Thumbnail jobs waiting for a worker.");
+        out.sample("planetarium_thumbnail_queue_depth", "", executor.getQueue().size());
+    }
+
+}
@@ -0,0 +1,10 @@
+-- Indexes for the name, owner and parent planet lookups done by the DAOs. Names are unique because
+-- the services already reject duplicate planet and moon names.
+
+create unique index if not exists idx_planets_name on planets(name);
+
+create index if not exists idx_planets_owner on planets(ownerId);
+
+create unique index if not exists idx_moons_name on moons(name);
+
+create index if not exists idx_moons_planet on moons(myPlanetId);
@@ -0,0 +1,44 @@
+-- Per-table data versions bumped by triggers on every write, used to build cheap ETags for the
+-- planet and moon routes. Versions start from the creation time in milliseconds so a recreated
+-- database never hands out a version an old client may still hold.
+
+create table if not exists data_versions(
+	name text primary key,
+	version integer not null
+);
+
+insert or ignore into data_versions (name, version) values ('planets', cast(strftime('%s', 'now') as integer) * 1000);
+
+insert or ignore into data_versions (name, version) values ('moons', cast(strftime('%s', 'now') as integer) * 1000);
+
+update data_versions set version = version + 1;
+
+create trigger if not exists planets_version_insert after insert on planets
+begin
+	update data_versions set version = version + 1 where name = 'planets';
+end;
+
+create trigger if not exists planets_version_update after update on planets
+begin
+	update data_versions set version = version + 1 where name = 'planets';
+end;
+
+create trigger if not exists planets_version_delete after delete on planets
+begin
+	update data_versions set version = version + 1 where name = 'planets';
+end;
+
+create trigger if not exists moons_version_insert after insert on moons
+begin
+	update data_versions set version = version + 1 where name = 'moons';
+end;
+
+create trigger if not exists moons_version_update after update on moons
+begin
+	update data_versions set version = version + 1 where name = 'moons';
+end;
+
+create trigger if not exists moons_version_delete after delete on moons
+begin
+	update data_versions set version = version + 1 where name = 'moons';
+end;
@@ -0,0 +1,10 @@
+-- Login sessions shared by every Planetarium process using this database, used when
+-- PLANETARIUM_SESSION_STORE=sqlite. expiresAt is in epoch milliseconds.
+
+create table if not exists sessions(
+	id text primary key,
+	username text not null,
+	expiresAt integer not null
+);
+
+create index if not exists idx_sessions_expires on sessions(expiresAt);
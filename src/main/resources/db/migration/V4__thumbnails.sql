@@ -0,0 +1,18 @@
+-- Downscaled copies of planet and moon images, one row per configured size (the longer edge in
+-- pixels). Written in the background after an image is stored and removed with their owner.
+
+create table if not exists planet_thumbnails(
+	planetId integer not null,
+	size integer not null,
+	image blob not null,
+	primary key (planetId, size),
+	foreign key(planetId) references planets(id) on delete cascade
+);
+
+create table if not exists moon_thumbnails(
+	moonId integer not null,
+	size integer not null,
+	image blob not null,
+	primary key (moonId, size),
+	foreign key(moonId) references moons(id) on delete cascade
+);
@@ -0,0 +1,76 @@
+-- Images are stored once per distinct content in the images table, keyed by the hex SHA-256 of
+-- their bytes, and planets and moons reference them through imageHash. refs counts the rows that
+-- reference an image and is maintained by the triggers below, which also fire for moons removed by
+-- the planet -> moon cascade; an image is deleted together with its last reference. sha256() is
+-- registered on every pooled connection by SqlFunctions.
+
+create table if not exists images(
+	hash text primary key,
+	image blob not null,
+	size integer not null,
+	refs integer not null default 0
+);
+
+alter table planets add column imageHash text;
+
+alter table moons add column imageHash text;
+
+insert or ignore into images (hash, image, size) select sha256(image), image, length(image) from planets where image is not null;
+
+insert or ignore into images (hash, image, size) select sha256(image), image, length(image) from moons where image is not null;
+
+update planets set imageHash = sha256(image) where image is not null;
+
+update moons set imageHash = sha256(image) where image is not null;
+
+alter table planets drop column image;
+
+alter table moons drop column image;
+
+create index if not exists idx_planets_image on planets(imageHash);
+
+create index if not exists idx_moons_image on moons(imageHash);
+
+-- counted from scratch, which also releases images left behind when the tables were recreated
+update images set refs = (select count(*) from planets where imageHash = images.hash)
+	+ (select count(*) from moons where imageHash = images.hash);
+
+delete from images where refs <= 0;
+
+create trigger if not exists planets_image_insert after insert on planets when new.imageHash is not null
+begin
+	update images set refs = refs + 1 where hash = new.imageHash;
+end;
+
+create trigger if not exists planets_image_delete after delete on planets when old.imageHash is not null
+begin
+	update images set refs = refs - 1 where hash = old.imageHash;
+	delete from images where hash = old.imageHash and refs <= 0;
+end;
+
+create trigger if not exists planets_image_update after update of imageHash on planets
+	when new.imageHash is not old.imageHash
+begin
+	update images set refs = refs + 1 where hash = new.imageHash;
+	update images set refs = refs - 1 where hash = old.imageHash;
+	delete from images where hash = old.imageHash and refs <= 0;
+end;
+
+create trigger if not exists moons_image_insert after insert on moons when new.imageHash is not null
+begin
+	update images set refs = refs + 1 where hash = new.imageHash;
+end;
+
+create trigger if not exists moons_image_delete after delete on moons when old.imageHash is not null
+begin
+	update images set refs = refs - 1 where hash = old.imageHash;
+	delete from images where hash = old.imageHash and refs <= 0;
+end;
+
+create trigger if not exists moons_image_update after update of imageHash on moons
+	when new.imageHash is not old.imageHash
+begin
+	update images set refs = refs + 1 where hash = new.imageHash;
+	update images set refs = refs - 1 where hash = old.imageHash;
+	delete from images where hash = old.imageHash and refs <= 0;
+end;
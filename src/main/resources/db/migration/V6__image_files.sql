@@ -0,0 +1,70 @@
+-- Lets images live as files in the directory tree managed by ImageFiles: their rows keep hash, size
+-- and reference count but no bytes. SQLite cannot drop the not null on image, so the table is
+-- rebuilt; the bytes become the last column, which keeps reads of size and refs off the blob's
+-- overflow pages. The refcount triggers are recreated so they only delete rows holding their bytes;
+-- unreferenced file rows are removed by ImageFiles.deleteUnreferenced together with their files.
+
+drop trigger if exists planets_image_insert;
+
+drop trigger if exists planets_image_delete;
+
+drop trigger if exists planets_image_update;
+
+drop trigger if exists moons_image_insert;
+
+drop trigger if exists moons_image_delete;
+
+drop trigger if exists moons_image_update;
+
+create table images_rebuilt(
+	hash text primary key,
+	size integer not null,
+	refs integer not null default 0,
+	image blob
+);
+
+insert into images_rebuilt (hash, size, refs, image) select hash, size, refs, image from images;
+
+drop table images;
+
+alter table images_rebuilt rename to images;
+
+create index if not exists idx_images_unreferenced on images(refs) where image is null;
+
+create trigger if not exists planets_image_insert after insert on planets when new.imageHash is not null
+begin
+	update images set refs = refs + 1 where hash = new.imageHash;
+end;
+
+create trigger if not exists planets_image_delete after delete on planets when old.imageHash is not null
+begin
+	update images set refs = refs - 1 where hash = old.imageHash;
+	delete from images where hash = old.imageHash and refs <= 0 and image is not null;
+end;
+
+create trigger if not exists planets_image_update after update of imageHash on planets
+	when new.imageHash is not old.imageHash
+begin
+	update images set refs = refs + 1 where hash = new.imageHash;
+	update images set refs = refs - 1 where hash = old.imageHash;
+	delete from images where hash = old.imageHash and refs <= 0 and image is not null;
+end;
+
+create trigger if not exists moons_image_insert after insert on moons when new.imageHash is not null
+begin
+	update images set refs = refs + 1 where hash = new.imageHash;
+end;
+
+create trigger if not exists moons_image_delete after delete on moons when old.imageHash is not null
+begin
+	update images set refs = refs - 1 where hash = old.imageHash;
+	delete from images where hash = old.imageHash and refs <= 0 and image is not null;
+end;
+
+create trigger if not exists moons_image_update after update of imageHash on moons
+	when new.imageHash is not old.imageHash
+begin
+	update images set refs = refs + 1 where hash = new.imageHash;
+	update images set refs = refs - 1 where hash = old.imageHash;
+	delete from images where hash = old.imageHash and refs <= 0 and image is not null;
+end;
@@ -0,0 +1,5 @@
+-- Sessions are keyed by the SHA-256 of their id rather than the id itself, so a dump of the
+-- database cannot be replayed as a session cookie. Existing rows are rehashed in place with the
+-- sha256 function registered by SqlFunctions, so nobody is logged out.
+
+update sessions set id = sha256(cast(id as blob));
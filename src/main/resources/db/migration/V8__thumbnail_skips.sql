@@ -0,0 +1,11 @@
+-- Images the Thumbnailer could not thumbnail: ImageIO could not decode them, or they declared more
+-- pixels than the maxPixels limit in effect then. backfill() skips them instead of decoding them
+-- again on every start; oversized images are retried once the limit is raised. Keyed by content, so
+-- every planet and moon sharing the image is skipped, and removed with the image.
+
+create table if not exists thumbnail_skips(
+	imageHash text primary key,
+	reason text not null,
+	maxPixels integer not null,
+	foreign key(imageHash) references images(hash) on delete cascade
+);
@@ -1,6 +1,7 @@
 package com.revature.planetarium;
 
 import com.revature.planetarium.utility.DatabaseConnector;
+import com.revature.planetarium.utility.SchemaMigrator;
 
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -19,6 +20,12 @@ public class Utility {
     public static void main(String[] args) {
         resetTestDatabase();
     }
+
+    /*
+     * The reset script recreates the tables without any migrated indexes, so forget the recorded
+     * schema version and let the migrator bring the fresh tables up to date again. The images table
+     * is rebuilt from the recreated rows too, so no image stays in a file store from an earlier run.
+     */
     public static void resetTestDatabase() {
         Path sql = Path.of("src/test/resources/setup-reset.sql");
         StringBuilder sqlBuilder = new StringBuilder();
@@ -44,10 +51,15 @@ public class Utility {
                 }
 
             }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("drop table if exists schema_version");
+                stmt.executeUpdate("drop table if exists images");
+            }
             conn.commit();
         } catch (IOException | SQLException e) {
             System.out.println("Error: " +e.getMessage());
         }
+        SchemaMigrator.migrate();
     }
 
     public static String convertToBase64(String filePath) throws IOException {
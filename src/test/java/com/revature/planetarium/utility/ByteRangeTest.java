@@ -0,0 +1,69 @@
+package com.revature.planetarium.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ByteRangeTest {
+
+    private static final String ETAG = "\"abc\"";
+
+    @Test
+    public void suffixRangeCoversTheLastBytes() {
+        ByteRange range = ByteRange.parse("bytes=-10", null, ETAG, 100);
+        assertEquals(90, range.getStart());
+        assertEquals(10, range.getLength());
+        assertEquals("bytes 90-99/100", range.contentRange());
+    }
+
+    @Test
+    public void suffixLongerThanTheImageCoversAllOfIt() {
+        ByteRange range = ByteRange.parse("bytes=-500", null, ETAG, 100);
+        assertEquals(0, range.getStart());
+        assertEquals(100, range.getLength());
+    }
+
+    @Test
+    public void emptySuffixIsUnsatisfiable() {
+        ByteRange range = ByteRange.parse("bytes=-0", null, ETAG, 100);
+        assertFalse(range.isSatisfiable());
+        assertEquals("bytes */100", range.contentRange());
+    }
+
+    @Test
+    public void openEndRunsToTheLastByte() {
+        ByteRange range = ByteRange.parse("bytes=40-", null, ETAG, 100);
+        assertEquals("bytes 40-99/100", range.contentRange());
+    }
+
+    @Test
+    public void startPastTheEndIsUnsatisfiable() {
+        assertFalse(ByteRange.parse("bytes=100-", null, ETAG, 100).isSatisfiable());
+    }
+
+    @Test
+    public void endBeforeStartIsIgnored() {
+        assertNull(ByteRange.parse("bytes=50-10", null, ETAG, 100));
+    }
+
+    @Test
+    public void multipleRangesGetTheWholeImage() {
+        assertNull(ByteRange.parse("bytes=0-9,20-29", null, ETAG, 100));
+    }
+
+    @Test
+    public void ifRangeMismatchGetsTheWholeImage() {
+        assertNull(ByteRange.parse("bytes=0-9", "\"other\"", ETAG, 100));
+    }
+
+    @Test
+    public void ifRangeMatchServesTheRange() {
+        ByteRange range = ByteRange.parse("bytes=0-9", ETAG, ETAG, 100);
+        assertTrue(range.isSatisfiable());
+        assertEquals(10, range.getLength());
+    }
+
+}